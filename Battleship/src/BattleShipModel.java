@@ -1,6 +1,6 @@
 /**
- * Interface for the model which has a map of 100 positions on which ships can
- * be placed.
+ * Interface for the model which has a map of width * height positions, 100
+ * unless given, on which ships can be placed.
  * 
  * @mathmodel boardMap is a map of positions mapped on mapReferences position is
  *            a map position of columns A-J concatenated with numbers 1-10,
@@ -53,7 +53,7 @@ public interface BattleShipModel {
 	 * @return if there was a hit returns the type of ship that was hit,
 	 *         otherwise returns empty
 	 * 
-	 * @requires 0 <= mapIndex < 100
+	 * @requires 0 <= mapIndex < width * height
 	 * @ensures A hit token is placed at mapIndex if and only if a ship token
 	 *          was at mapIndex Otherwise, boardMap remains unchanged.
 	 */
@@ -82,7 +82,30 @@ public interface BattleShipModel {
 	 * @param gridIndex
 	 *            The position to get the token from on boardMap.
 	 * @return the ShipEnum at position gridIndex - either a type of ship, hit,
-	 *         or empty
+	 *         or empty - or null if gridIndex is not on the map
 	 */
 	ShipEnum getGridToken(Integer gridIndex);
+
+	/**
+	 * Sets the listener told about every position whose token changes.
+	 * 
+	 * @param listener
+	 *            the listener, or null for none
+	 * @ensures every later change of a token is reported to listener
+	 */
+	void setCellListener(CellListener listener);
+
+	/**
+	 * Returns the number of columns.
+	 * 
+	 * @return the width of the map
+	 */
+	int getWidth();
+
+	/**
+	 * Returns the number of rows.
+	 * 
+	 * @return the height of the map
+	 */
+	int getHeight();
 }
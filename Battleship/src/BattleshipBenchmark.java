@@ -0,0 +1,456 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+
+/**
+ * Micro-benchmarks for the model and game layers. Each benchmark is warmed up
+ * and then measured over several timed iterations, and the mean throughput is
+ * reported together with the number of bytes the benchmark thread allocated
+ * per operation.
+ *
+ * Run with: java BattleshipBenchmark [filter] [iteration millis]
+ *
+ * where filter only runs benchmarks whose name contains it.
+ */
+public final class BattleshipBenchmark {
+	// Fields
+	/**
+	 * Number of untimed warmup iterations per benchmark.
+	 */
+	private static final int WARMUP = 5;
+
+	/**
+	 * Number of timed iterations per benchmark.
+	 */
+	private static final int ITERATIONS = 5;
+
+	/**
+	 * Default length of an iteration in milliseconds.
+	 */
+	private static final int DEFAULT_MILLIS = 1000;
+
+	/**
+	 * Number of operations run between clock checks.
+	 */
+	private static final int BATCH = 1024;
+
+	/**
+	 * The ships of a complete fleet.
+	 */
+	private static final ShipEnum[] FLEET = {ShipEnum.Aircraft_Carrier,
+			ShipEnum.Battleship, ShipEnum.Cruiser, ShipEnum.Submarine,
+			ShipEnum.Destroyer};
+
+	/**
+	 * Positions with no ship when the fleet is placed by placeFleet.
+	 */
+	private static final int[] WATER = {15, 26, 37, 48, 59, 91, 92, 93};
+
+	/**
+	 * Destroyer origins that overlap the fleet placed by placeFleet, or run
+	 * off the grid, when placed downwards.
+	 */
+	private static final int[] REJECTED = {0, 4, 11, 13, 31, 51, 71, 95};
+
+	/**
+	 * The number of positions in a row of the map.
+	 */
+	private static final int ROW = 10;
+
+	/**
+	 * Receives benchmark results so the JIT can't discard the work.
+	 */
+	private static volatile int sink;
+
+	// Constructor
+	/**
+	 * Private constructor for this utility class.
+	 */
+	private BattleshipBenchmark() {
+	}
+
+	// Nested types
+	/**
+	 * A single benchmarked operation.
+	 */
+	private abstract static class Benchmark {
+		/**
+		 * Name printed in the report.
+		 */
+		private final String name;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param name
+		 *            name printed in the report
+		 */
+		Benchmark(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * Runs the operation once.
+		 *
+		 * @param i
+		 *            the number of the invocation
+		 * @return a value depending on the work done
+		 */
+		abstract int run(int i);
+	}
+
+	/**
+	 * Creates a model of the given kind.
+	 */
+	private static BattleShipModel newModel(boolean bitboard) {
+		if (bitboard) {
+			return new BitboardBattleShipModel();
+		}
+		return new SolidBattleShipModel();
+	}
+
+	/**
+	 * Places the whole fleet on a model, one ship on every other row.
+	 */
+	private static void placeFleet(BattleShipModel model) {
+		final int rowStep = 20;
+		for (int i = 0; i < FLEET.length; i++) {
+			model.addShip(i * rowStep, CommandEnum.right, FLEET[i]);
+		}
+	}
+
+	/**
+	 * Adds the model benchmarks for one model implementation.
+	 */
+	private static Benchmark[] modelBenchmarks(final boolean bitboard) {
+		final String kind;
+		if (bitboard) {
+			kind = "Bitboard";
+		} else {
+			kind = "Solid";
+		}
+		final BattleShipModel full = newModel(bitboard);
+		placeFleet(full);
+		final int cells = 100;
+		return new Benchmark[] {new Benchmark(kind + ".addShip") {
+			@Override
+			int run(int i) {
+				// a new model with all five ships placed on it
+				BattleShipModel model = newModel(bitboard);
+				placeFleet(model);
+				return model.getGridToken(0).ordinal();
+			}
+		}, new Benchmark(kind + ".addShipRejected") {
+			@Override
+			int run(int i) {
+				// every origin overlaps a ship, or runs off the grid
+				boolean error = full.addShip(REJECTED[i % REJECTED.length],
+						CommandEnum.down, ShipEnum.Destroyer);
+				if (error) {
+					return 1;
+				}
+				return 0;
+			}
+		}, new Benchmark(kind + ".fireShot") {
+			@Override
+			int run(int i) {
+				// shots at water leave the model unchanged
+				return full.fireShot(WATER[i % WATER.length]).ordinal();
+			}
+		}, new Benchmark(kind + ".loseCheck") {
+			@Override
+			int run(int i) {
+				if (full.loseCheck()) {
+					return 1;
+				}
+				return 0;
+			}
+		}, new Benchmark(kind + ".isShipSunk") {
+			@Override
+			int run(int i) {
+				if (full.isShipSunk(FLEET[i % FLEET.length])) {
+					return 1;
+				}
+				return 0;
+			}
+		}, new Benchmark(kind + ".getGridToken") {
+			@Override
+			int run(int i) {
+				return full.getGridToken(i % cells).ordinal();
+			}
+		}};
+	}
+
+	/**
+	 * Creates the game benchmarks.
+	 */
+	private static Benchmark[] gameBenchmarks() {
+		return new Benchmark[] {fullGameBenchmark(), batchGameBenchmark(),
+				snapshotBenchmark(true), snapshotBenchmark(false),
+				replayBenchmark()};
+	}
+
+	/**
+	 * Plays a whole SolidBattleshipGame from placement through to a win. Both
+	 * players place the same fleet and fire at every position in order.
+	 */
+	private static Benchmark fullGameBenchmark() {
+		return new Benchmark("SolidBattleshipGame.fullGame") {
+			@Override
+			int run(int i) {
+				final int rowStep = 20;
+				BattleshipGame game = new SolidBattleshipGame();
+				CommandEnum[] players = {CommandEnum.player1,
+						CommandEnum.player2};
+				for (CommandEnum player : players) {
+					for (int s = 0; s < FLEET.length; s++) {
+						game.addShip(s * rowStep, CommandEnum.right, FLEET[s],
+								player);
+					}
+				}
+				int[] next = new int[2];
+				int shots = 0;
+				while (true) {
+					int shooter = game.getPlayerTurn().ordinal()
+							- CommandEnum.player1.ordinal();
+					CommandEnum target = players[1 - shooter];
+					ShipEnum result = game.fireShot(next[shooter]++, target);
+					shots++;
+					if (result != ShipEnum.empty) {
+						game.isShipSunk(result, target);
+						if (game.hasPlayerLost(target)) {
+							return shots;
+						}
+					}
+				}
+			}
+		};
+	}
+
+	/**
+	 * Plays the full game benchmark's game with fireShots, a turn of one row
+	 * per player per call, and stops at the first batch that wins.
+	 */
+	private static Benchmark batchGameBenchmark() {
+		return new Benchmark("SolidBattleshipGame.fireShots") {
+			/**
+			 * The positions of each row.
+			 */
+			private final int[][] rows = new int[ROW][ROW];
+
+			/**
+			 * The outcomes of the last batch.
+			 */
+			private final byte[] outcomes = new byte[ROW];
+
+			{
+				for (int i = 0; i < ROW * ROW; i++) {
+					rows[i / ROW][i % ROW] = i;
+				}
+			}
+
+			@Override
+			int run(int i) {
+				final int rowStep = 20;
+				BattleshipGame game = new SolidBattleshipGame();
+				CommandEnum[] players = {CommandEnum.player1,
+						CommandEnum.player2};
+				for (CommandEnum player : players) {
+					for (int s = 0; s < FLEET.length; s++) {
+						game.addShip(s * rowStep, CommandEnum.right, FLEET[s],
+								player);
+					}
+				}
+				// player 1 fires first, at player 2
+				CommandEnum[] targets = {CommandEnum.player2,
+						CommandEnum.player1};
+				int shots = 0;
+				for (int[] row : rows) {
+					for (CommandEnum target : targets) {
+						shots += game.fireShots(row, ROW, target, outcomes);
+						for (int k = 0; k < ROW; k++) {
+							if (ShotOutcome.isLost(outcomes[k])) {
+								return shots;
+							}
+						}
+					}
+				}
+				return shots;
+			}
+		};
+	}
+
+	/**
+	 * Saves, or restores, a snapshot of a game in progress through a reused
+	 * direct buffer.
+	 */
+	private static Benchmark snapshotBenchmark(final boolean save) {
+		final SolidBattleshipGame game = new SolidBattleshipGame();
+		CommandEnum[] players = {CommandEnum.player1, CommandEnum.player2};
+		for (CommandEnum player : players) {
+			new FleetGenerator(player.ordinal()).placeFleet(game, player);
+		}
+		for (int cell : WATER) {
+			game.fireShot(cell, CommandEnum.player2);
+			game.fireShot(cell, CommandEnum.player1);
+		}
+		final ByteBuffer buffer = ByteBuffer.allocateDirect(GameSnapshot.SIZE);
+		GameSnapshot.save(game, buffer);
+		String name = "GameSnapshot.restore";
+		if (save) {
+			name = "GameSnapshot.save";
+		}
+		return new Benchmark(name) {
+			@Override
+			int run(int i) {
+				buffer.clear();
+				if (save) {
+					GameSnapshot.save(game, buffer);
+				} else {
+					GameSnapshot.restore(buffer, game);
+				}
+				return buffer.position();
+			}
+		};
+	}
+
+	/**
+	 * Seeks to pseudo-random moves of a recorded game with GameReplay. The
+	 * game is the one played by the full game benchmark, with every position
+	 * fired at on both maps.
+	 */
+	private static Benchmark replayBenchmark() {
+		// needed constants
+		final int rowStep = 20, mapSize = 100, mix = 0x9E3779B9;
+		CommandEnum[] players = {CommandEnum.player1, CommandEnum.player2};
+		int[] moves = new int[players.length * (FLEET.length + mapSize)];
+		int length = 0;
+		for (CommandEnum player : players) {
+			for (int s = 0; s < FLEET.length; s++) {
+				moves[length++] = GameMove.addShip(s * rowStep,
+						CommandEnum.right, FLEET[s], player);
+			}
+		}
+		for (int cell = 0; cell < mapSize; cell++) {
+			moves[length++] = GameMove.fireShot(cell, CommandEnum.player2);
+			moves[length++] = GameMove.fireShot(cell, CommandEnum.player1);
+		}
+		final GameReplay replay = new GameReplay(moves);
+		return new Benchmark("GameReplay.seek") {
+			@Override
+			int run(int i) {
+				int n = (int) ((i * mix & 0xFFFFFFFFL)
+						% (replay.getLength() + 1));
+				return replay.seek(n).getPlayerTurn().ordinal();
+			}
+		};
+	}
+
+	/**
+	 * Runs a benchmark for a number of milliseconds.
+	 *
+	 * @return {operations, allocated bytes or -1, elapsed nanoseconds}
+	 */
+	private static long[] iteration(Benchmark b, long millis) {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		long deadline = System.nanoTime() + millis * 1000000L;
+		long bytes = allocatedBytes(threads);
+		long start = System.nanoTime();
+		long ops = 0;
+		int acc = 0;
+		long now;
+		do {
+			for (int i = 0; i < BATCH; i++) {
+				acc += b.run((int) ops + i);
+			}
+			ops += BATCH;
+			now = System.nanoTime();
+		} while (now < deadline);
+		long allocated = allocatedBytes(threads);
+		sink = acc;
+		if (bytes < 0 || allocated < 0) {
+			return new long[] {ops, -1, now - start};
+		}
+		return new long[] {ops, allocated - bytes, now - start};
+	}
+
+	/**
+	 * Returns the bytes allocated by the current thread so far, or -1 if the
+	 * JVM can't tell.
+	 */
+	private static long allocatedBytes(ThreadMXBean threads) {
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean t =
+					(com.sun.management.ThreadMXBean) threads;
+			if (t.isThreadAllocatedMemorySupported()
+					&& t.isThreadAllocatedMemoryEnabled()) {
+				return t.getThreadAllocatedBytes(Thread.currentThread()
+						.getId());
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Warms up and measures a benchmark, then prints a report line.
+	 */
+	private static void measure(Benchmark b, long millis) {
+		for (int i = 0; i < WARMUP; i++) {
+			iteration(b, millis);
+		}
+		long ops = 0, bytes = 0, nanos = 0;
+		for (int i = 0; i < ITERATIONS; i++) {
+			long[] r = iteration(b, millis);
+			ops += r[0];
+			nanos += r[2];
+			if (r[1] < 0 || bytes < 0) {
+				bytes = -1;
+			} else {
+				bytes += r[1];
+			}
+		}
+		final double nanosPerSecond = 1e9;
+		double throughput = ops * nanosPerSecond / nanos;
+		String alloc;
+		if (bytes < 0) {
+			alloc = "n/a";
+		} else {
+			alloc = String.format("%.1f", (double) bytes / ops);
+		}
+		System.out.printf("%-36s %16.1f %12s%n", b.name, throughput, alloc);
+	}
+
+	// Main method
+	/**
+	 * Runs every benchmark whose name contains the filter.
+	 *
+	 * @param args
+	 *            optional filter and iteration length in milliseconds
+	 */
+	public static void main(String[] args) {
+		String filter = "";
+		long millis = DEFAULT_MILLIS;
+		if (args.length > 0) {
+			filter = args[0];
+		}
+		if (args.length > 1) {
+			millis = Long.parseLong(args[1]);
+		}
+		Benchmark[] solid = modelBenchmarks(false);
+		Benchmark[] bitboard = modelBenchmarks(true);
+		Benchmark[] game = gameBenchmarks();
+		Benchmark[] all = new Benchmark[solid.length + bitboard.length
+				+ game.length];
+		System.arraycopy(solid, 0, all, 0, solid.length);
+		System.arraycopy(bitboard, 0, all, solid.length, bitboard.length);
+		System.arraycopy(game, 0, all, solid.length + bitboard.length,
+				game.length);
+
+		System.out.printf("%-36s %16s %12s%n", "Benchmark", "ops/s", "B/op");
+		for (Benchmark b : all) {
+			if (b.name.contains(filter)) {
+				measure(b, millis);
+			}
+		}
+	}
+}
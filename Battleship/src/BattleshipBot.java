@@ -0,0 +1,38 @@
+/**
+ * A computer player that can place a fleet and choose where to fire. A bot
+ * plays a single game: it places its fleet once, and is then asked for a shot
+ * and told the outcome of that shot until the game is over.
+ */
+public interface BattleshipBot {
+
+	/**
+	 * Places all five ships for player.
+	 * 
+	 * @param game
+	 *            the game whose map the ships are placed on
+	 * @param player
+	 *            the player this bot plays for
+	 * @ensures all five ships of player are on the map
+	 */
+	void placeFleet(BattleshipGame game, CommandEnum player);
+
+	/**
+	 * Chooses the next position to fire at on the opponent's map.
+	 * 
+	 * @return a position 0 <= index < 100 that this bot hasn't fired at yet
+	 */
+	int nextShot();
+
+	/**
+	 * Tells the bot the outcome of its last shot.
+	 * 
+	 * @param mapIndex
+	 *            the position that was fired at
+	 * @param result
+	 *            the token returned by fireShot - the ship that was hit, or
+	 *            empty for a miss
+	 * @param sunk
+	 *            true if and only if the shot sank result
+	 */
+	void shotResult(int mapIndex, ShipEnum result, boolean sunk);
+}
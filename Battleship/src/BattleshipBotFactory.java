@@ -0,0 +1,15 @@
+/**
+ * Creates a new bot for every game, so bots can keep per-game state and games
+ * can be played on several threads at once.
+ */
+public interface BattleshipBotFactory {
+
+	/**
+	 * Creates a bot for one game.
+	 * 
+	 * @param seed
+	 *            the seed for any random choices the bot makes
+	 * @return a new bot
+	 */
+	BattleshipBot newBot(long seed);
+}
@@ -22,18 +22,18 @@ public final class BattleshipController {
 	/**
 	 * The type of ship. Selected in the view and used to change the model.
 	 */
-	private static ShipEnum ship = null;
+	private ShipEnum ship = null;
 
 	/**
 	 * The direction of the ship. Selected in the view and used to change the
 	 * model.
 	 */
-	private static CommandEnum direction = CommandEnum.up;
+	private CommandEnum direction = CommandEnum.up;
 
 	/**
-	 * An instance of the model.
+	 * An instance of the model. Each controller plays its own game.
 	 */
-	private static BattleshipGame game = new SolidBattleshipGame();
+	private final BattleshipGame game = new SolidBattleshipGame();
 
 	/**
 	 * An instance of the view for player 1.
@@ -45,6 +45,11 @@ public final class BattleshipController {
 	 */
 	private BattleshipView player2;
 
+	/**
+	 * The view whose grid clicks are acted on, or null if neither is.
+	 */
+	private BattleshipView gridTurn = null;
+
 	// Constructor
 	/**
 	 * Private constructor for this utility class. It creates two instances of
@@ -65,6 +70,13 @@ public final class BattleshipController {
 		player2.setLocation(player1.getWidth(), 0);
 		player2.setVisible(true);
 
+		// redraw only the grid positions each move changes
+		game.addBoardListener(new BoardChangeListener());
+
+		// one grid listener per view for the whole game
+		player1.setGridListener(new GridClickListener(player1));
+		player2.setGridListener(new GridClickListener(player2));
+
 		// ask player 1 to start
 		BattleshipView.askPlayerToStart(p1);
 
@@ -108,36 +120,60 @@ public final class BattleshipController {
 	}
 
 	/**
-	 * Adds listeners to player's grid buttons.
+	 * Makes player's grid the one whose clicks are acted on.
 	 * 
 	 * @param player
-	 *            the View instance whose grid buttons will have listeners
-	 * @ensures the grid buttons have listeners
+	 *            the View instance whose grid clicks will be acted on
+	 * @ensures clicks on player's grid are acted on, and clicks on the other
+	 *          grid are ignored
 	 */
-	private void addGridListeners(BattleshipView player) {
-		for (int i = 0; i < BattleshipView.SIZE; i++) {
-			player.addGridButtonListener(new ButtonActionListener(), i);
-		}
+	private void acceptGridClicks(BattleshipView player) {
+		gridTurn = player;
 	}
 
 	/**
-	 * Removes listeners from player's grid buttons.
+	 * Ignores clicks on player's grid.
 	 * 
 	 * @param player
-	 *            the View instance whose grid buttons will not have listeners
-	 * @ensures the grid buttons don't have listeners
+	 *            the View instance whose grid clicks will be ignored
+	 * @ensures clicks on player's grid are ignored
 	 */
-	private void removeGridListeners(BattleshipView player) {
-		for (int i = 0; i < BattleshipView.SIZE; i++) {
-			// remove all action listeners
-			for (ActionListener al : player.getGridButton(i)
-					.getActionListeners()) {
-				player.getGridButton(i).removeActionListener(al);
+	private void ignoreGridClicks(BattleshipView player) {
+		if (gridTurn == player) {
+			gridTurn = null;
+		}
+	}
+
+	// Nested class implementing BoardListener
+	/**
+	 * Nested class that redraws the grid positions whose tokens a move has
+	 * changed. A ship placed on a player's map shows on that player's grid,
+	 * and a hit on a player's map shows on the grid of the player who fired.
+	 */
+	private class BoardChangeListener implements BoardListener {
+		@Override
+		public void cellsChanged(CommandEnum playa, int[] mapIndexes,
+				int count) {
+			BattleshipView own = player1, other = player2;
+			if (playa == CommandEnum.player2) {
+				own = player2;
+				other = player1;
+			}
+			for (int k = 0; k < count; k++) {
+				int i = mapIndexes[k];
+				ShipEnum token = game.getGridToken(i, playa);
+				if (token == ShipEnum.hit) {
+					other.setShipDisabledIcon(i);
+				} else if (token == ShipEnum.empty) {
+					own.clearIcon(i);
+				} else {
+					own.setShipIcon(i);
+				}
 			}
 		}
 	}
 
-	// Nested classes implementing ActionListener
+	// Nested classes implementing ActionListener and GridListener
 	/**
 	 * Nested class that acts as the action listener for the ship buttons which
 	 * indicate which type of ship will be placed on the grid.
@@ -150,7 +186,7 @@ public final class BattleshipController {
 			final int three = 3, four = 4;
 			// get command
 			String command = e.getActionCommand();
-			int i = new Integer(command.substring(1));
+			int i = Integer.parseInt(command.substring(1));
 
 			if (command.charAt(0) == 'a') { // for player 1
 				/*
@@ -163,8 +199,8 @@ public final class BattleshipController {
 				player1.getShipButton(2).setVisible(false);
 				player1.getShipButton(three).setVisible(false);
 				player1.getShipButton(four).setVisible(false);
-				// add grid listeners so that the player can place ship
-				addGridListeners(player1);
+				// accept grid clicks so that the player can place ship
+				acceptGridClicks(player1);
 			} else { // for player 2
 				/*
 				 * Disable the clicked button and set all to invisible so that
@@ -176,8 +212,8 @@ public final class BattleshipController {
 				player2.getShipButton(2).setVisible(false);
 				player2.getShipButton(three).setVisible(false);
 				player2.getShipButton(four).setVisible(false);
-				// add grid listeners so that the player can place ship
-				addGridListeners(player2);
+				// accept grid clicks so that the player can place ship
+				acceptGridClicks(player2);
 			}
 
 			/*
@@ -210,7 +246,7 @@ public final class BattleshipController {
 	 * Nested class that acts as the action listener for the orientation buttons
 	 * which indicate in which direction a ship will be placed on the grid.
 	 */
-	private static class OrientationActionListener implements ActionListener {
+	private class OrientationActionListener implements ActionListener {
 		// actionPerformed method
 		@Override
 		public void actionPerformed(ActionEvent e) {
@@ -219,7 +255,7 @@ public final class BattleshipController {
 
 			// get command
 			String command = e.getActionCommand();
-			int i = new Integer(command.substring(1));
+			int i = Integer.parseInt(command.substring(1));
 
 			// set the direction according to the command
 			switch (i) {
@@ -242,33 +278,28 @@ public final class BattleshipController {
 	}
 
 	/**
-	 * Nested class that acts as the action listener for the grid buttons which
-	 * either indicate the starting position of a ship that will be placed, or a
-	 * shot fired to attempt to hit a ship.
+	 * Nested class that listens to the grid of one view for the whole game.
+	 * A click either indicates the starting position of a ship that will be
+	 * placed, or a shot fired to attempt to hit a ship, and is ignored unless
+	 * it is on the grid whose clicks the controller currently acts on.
 	 */
-	private class ButtonActionListener implements ActionListener {
-		// private methods
+	private class GridClickListener implements GridListener {
+		/**
+		 * The view whose grid this listens to.
+		 */
+		private final BattleshipView view;
+
 		/**
-		 * Clears player's grid by getting the token for each button in the grid
-		 * and making the icon water if it's empty, ship otherwise.
+		 * Constructor.
 		 * 
-		 * @param player
-		 *            the View instance whose grid will be cleared
-		 * @param playa
-		 *            the CommandEnum for the player
-		 * @ensures the grid displays where the ships are located
+		 * @param view
+		 *            the view whose grid this listens to
 		 */
-		private void clearIcons(BattleshipView player, CommandEnum playa) {
-			for (int i = 0; i < BattleshipView.SIZE; i++) {
-				// get token and see if it's empty
-				if (game.getGridToken(i, playa) == ShipEnum.empty) {
-					player.clearIcon(i); // set icon to water
-				} else {
-					player.setShipIcon(i); // set icon to ship
-				}
-			}
+		GridClickListener(BattleshipView view) {
+			this.view = view;
 		}
 
+		// private methods
 		/**
 		 * Handles the placing ships role of the grid buttons.
 		 * 
@@ -295,26 +326,31 @@ public final class BattleshipController {
 
 			// make the button's icon a ship
 			player.setShipIcon(i);
-			// attempt to add ship
+			/*
+			 * Attempt to add ship. If it is added, the board listener shows
+			 * it on the grid.
+			 */
 			boolean error = game.addShip(i, direction, ship, playa);
 			// if unsuccessful, display dialog that lets the user know
 			if (error) {
+				// the clicked button is water again unless a ship is there
+				if (game.getGridToken(i, playa) == ShipEnum.empty) {
+					player.clearIcon(i);
+				}
 				BattleshipView.displayPlacementError();
 			} else {
 				/*
-				 * If successful, the grid listeners are currently not needed
+				 * If successful, grid clicks are currently not needed
 				 * anymore. Make the ship buttons visible so that the player can
 				 * select another ship to add.
 				 */
-				removeGridListeners(player);
+				ignoreGridClicks(player);
 				player.getShipButton(0).setVisible(true);
 				player.getShipButton(1).setVisible(true);
 				player.getShipButton(2).setVisible(true);
 				player.getShipButton(three).setVisible(true);
 				player.getShipButton(four).setVisible(true);
 			}
-			// update grids to show where a ship was added
-			clearIcons(player, playa);
 		}
 
 		/**
@@ -353,11 +389,12 @@ public final class BattleshipController {
 			// fireShot returns either a type of ship or empty
 			ship = game.fireShot(i, otherPlaya);
 			// disable grid button
-			player.getGridButton(i).setEnabled(false);
-			// if ship is not empty, there was a hit
+			player.setGridButtonEnabled(i, false);
+			/*
+			 * If ship is not empty, there was a hit, and the board listener
+			 * has changed the icon to ship.
+			 */
 			if (ship != ShipEnum.empty) {
-				// change icon to ship
-				player.setShipDisabledIcon(i);
 				/*
 				 * Check if ship has sunk and display dialog letting the player
 				 * know.
@@ -367,10 +404,10 @@ public final class BattleshipController {
 				}
 			} 
 			/*
-			 * Remove player 1's grid listeners to prevent him/her from guessing
+			 * Ignore player 1's grid clicks to prevent him/her from guessing
 			 * again.
 			 */
-			removeGridListeners(player);
+			ignoreGridClicks(player);
 			/*
 			 * If player 1 found all of player 2's ships, player 2 has lost.
 			 * Clear player 2's grid to show player 1's remaining ships, and
@@ -385,7 +422,7 @@ public final class BattleshipController {
 					s2 = game.getGridToken(p, otherPlaya);
 					if (s1 != ShipEnum.empty) {
 						// change icon to ship
-						otherPlayer.getGridButton(p).setEnabled(false);
+						otherPlayer.setGridButtonEnabled(p, false);
 						otherPlayer.setShipDisabledIcon(p);
 					} else {
 						otherPlayer.completeClearIcon(p);
@@ -401,17 +438,19 @@ public final class BattleshipController {
 					BattleshipView.displayWinner(p2);
 				}
 			} else { // player 2 hasn't lost. Let him/her guess.
-				addGridListeners(otherPlayer);
+				acceptGridClicks(otherPlayer);
 			}
 		}
 
-		// actionPerformed method
+		// positionClicked method
 		@Override
-		public void actionPerformed(ActionEvent e) {
-			// get command
-			String command = e.getActionCommand();
-			int i = new Integer(command.substring(1));
-			if (command.charAt(0) == 'a') { // for player 1
+		public void positionClicked(int i) {
+			// only the grid whose turn it is may be clicked
+			if (view != gridTurn) {
+				return;
+			}
+			GameMetrics.clicked();
+			if (view == player1) { // for player 1
 				// if game has not started, the player is placing ships
 				if (!game.hasGameStarted()) {
 					placeShips(player1, i); // call place ships method
@@ -449,10 +488,10 @@ public final class BattleshipController {
 						// player 2's toolbar is no longer needed
 						player2.deactivateToolbar();
 						/*
-						 * Add listeners to player 1's grid so he/she can begin
+						 * Accept clicks on player 1's grid so he/she can begin
 						 * guessing.
 						 */
-						addGridListeners(player1);
+						acceptGridClicks(player1);
 						// display dialog indicating the game as started
 						BattleshipView.startGame();
 					}
@@ -472,6 +511,7 @@ public final class BattleshipController {
 	 *            is empty
 	 */
 	public static void main(String[] args) {
+		GameMetrics.install();
 		new BattleshipController();
 	}
 }
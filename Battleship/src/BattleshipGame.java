@@ -1,6 +1,7 @@
 /**
  * This interface represents the model of the Battleship game. It has two maps
- * with positions 0 to 99, at which players can place ships and fire shots.
+ * with positions 0 to width * height - 1, 0 to 99 unless given, at which
+ * players can place ships and fire shots.
  * 
  * @mathmodel playerMaps is a map of players mapped on position player is a
  *            token that identifies a player. <br />
@@ -90,6 +91,35 @@ public interface BattleshipGame {
 	 */
 	ShipEnum fireShot(int mapIndex, CommandEnum player);
 
+	/**
+	 * Fires a batch of shots at player's map as one turn of the other player,
+	 * and reports what each shot did as a ShotOutcome. Shots are fired in
+	 * order, each as fireShot would fire it, but the turn passes to player
+	 * once, after the batch, rather than after every shot. A position that has
+	 * already been fired at is not fired at again, and its outcome is
+	 * ShotOutcome.REPEAT. If the game hasn't started, or it is player's turn,
+	 * no shot is fired and every outcome is ShotOutcome.NOT_STARTED or
+	 * ShotOutcome.NOT_YOUR_TURN. A batch of one position is a normal turn.
+	 * 
+	 * @param mapIndexes
+	 *            the positions fired at
+	 * @param count
+	 *            the number of positions, from the start of mapIndexes
+	 * @param player
+	 *            the player the shots are being fired at
+	 * @param outcomes
+	 *            receives the outcome of the shot at mapIndexes[i] in
+	 *            outcomes[i]
+	 * @requires count <= mapIndexes.length and count <= outcomes.length
+	 * @ensures every position in mapIndexes has been fired at once
+	 * @return the number of shots fired, not counting repeats
+	 * @throws IllegalArgumentException
+	 *             if any of the positions is off the map, in which case no
+	 *             shot is fired
+	 */
+	int fireShots(int[] mapIndexes, int count, CommandEnum player,
+			byte[] outcomes);
+
 	/**
 	 * Returns the player who is currently active.
 	 * 
@@ -134,4 +164,24 @@ public interface BattleshipGame {
 	 * @return true if and only if game has started
 	 */
 	boolean hasGameStarted();
+
+	/**
+	 * Adds a listener told about the positions each move changes on either
+	 * player's map.
+	 * 
+	 * @param listener
+	 *            the listener to add
+	 * @ensures listener receives an event after every later move that changes
+	 *          a token
+	 */
+	void addBoardListener(BoardListener listener);
+
+	/**
+	 * Removes a listener added with addBoardListener.
+	 * 
+	 * @param listener
+	 *            the listener to remove
+	 * @ensures listener receives no more events
+	 */
+	void removeBoardListener(BoardListener listener);
 }
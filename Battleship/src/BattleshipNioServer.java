@@ -0,0 +1,354 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * Serves the BinaryProtocol from a single selector thread. Each connection
+ * reads into and writes from direct buffers that are taken from a pool when it
+ * opens and given back when it closes. Every complete frame in the input
+ * buffer is answered before anything is written, so pipelined requests are
+ * answered in batches.
+ *
+ * Games live in a GameSessionRegistry, which may be shared with a
+ * BattleshipServer.
+ *
+ * Run with: java BattleshipNioServer [port] [journal directory]
+ */
+public final class BattleshipNioServer {
+	// Fields
+	/**
+	 * Default port to listen on.
+	 */
+	private static final int DEFAULT_PORT = 4001;
+
+	/**
+	 * The size of each connection buffer in bytes.
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * The largest response, in bytes.
+	 */
+	private static final int MAX_RESPONSE = 4;
+
+	/**
+	 * The number of positions on the map of every game hosted.
+	 */
+	private static final int POSITIONS = SolidBattleShipModel.DEFAULT_WIDTH
+			* SolidBattleShipModel.DEFAULT_HEIGHT;
+
+	/**
+	 * The games hosted by this server.
+	 */
+	private final GameSessionRegistry registry;
+
+	/**
+	 * Direct buffers not used by any connection.
+	 */
+	private final ArrayDeque<ByteBuffer> buffers = new ArrayDeque<ByteBuffer>();
+
+	/**
+	 * The position of the shot being fired, reused by every FIRE request on
+	 * the selector thread.
+	 */
+	private final int[] shot = new int[1];
+
+	/**
+	 * The outcome of the shot being fired.
+	 */
+	private final byte[] outcome = new byte[1];
+
+	// Constructor
+	/**
+	 * Constructor.
+	 *
+	 * @param registry
+	 *            the games hosted by this server
+	 */
+	public BattleshipNioServer(GameSessionRegistry registry) {
+		this.registry = registry;
+	}
+
+	// Nested classes
+	/**
+	 * The state of one client connection.
+	 */
+	private static final class Connection {
+		/**
+		 * Requests read but not yet answered, in write mode.
+		 */
+		private final ByteBuffer in;
+
+		/**
+		 * Responses not yet written, in write mode.
+		 */
+		private final ByteBuffer out;
+
+		/**
+		 * Constructor.
+		 */
+		Connection(ByteBuffer in, ByteBuffer out) {
+			this.in = in;
+			this.out = out;
+		}
+	}
+
+	// Methods
+	/**
+	 * Accepts and serves connections until the channel is closed.
+	 *
+	 * @param server
+	 *            a bound server channel
+	 * @throws IOException
+	 *             if the selector fails
+	 */
+	public void serve(ServerSocketChannel server) throws IOException {
+		Selector selector = Selector.open();
+		server.configureBlocking(false);
+		server.register(selector, SelectionKey.OP_ACCEPT);
+		while (server.isOpen()) {
+			selector.select();
+			Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+			while (keys.hasNext()) {
+				SelectionKey key = keys.next();
+				keys.remove();
+				try {
+					if (key.isAcceptable()) {
+						accept(server, selector);
+					} else {
+						if (key.isReadable()) {
+							read(key);
+						}
+						if (key.isValid() && key.isWritable()) {
+							write(key);
+						}
+					}
+				} catch (IOException e) {
+					close(key);
+				}
+			}
+		}
+		selector.close();
+	}
+
+	/**
+	 * Accepts a pending connection and registers it for reading.
+	 */
+	private void accept(ServerSocketChannel server, Selector selector)
+			throws IOException {
+		SocketChannel channel = server.accept();
+		if (channel == null) {
+			return;
+		}
+		channel.configureBlocking(false);
+		channel.socket().setTcpNoDelay(true);
+		channel.register(selector, SelectionKey.OP_READ, new Connection(
+				takeBuffer(), takeBuffer()));
+	}
+
+	/**
+	 * Reads what the client sent and answers every complete frame.
+	 */
+	private void read(SelectionKey key) throws IOException {
+		Connection c = (Connection) key.attachment();
+		SocketChannel channel = (SocketChannel) key.channel();
+		if (channel.read(c.in) < 0) {
+			close(key);
+			return;
+		}
+		process(c);
+		write(key);
+	}
+
+	/**
+	 * Answers buffered frames while there is room for the answers.
+	 */
+	private void process(Connection c) {
+		c.in.flip();
+		while (c.in.remaining() >= BinaryProtocol.FRAME
+				&& c.out.remaining() >= MAX_RESPONSE) {
+			int start = c.in.position();
+			byte opcode = c.in.get(start);
+			int player = c.in.get(start + 1);
+			int mapIndex = c.in.get(start + 2) & 0xFF;
+			int arg = c.in.get(start + 3);
+			int id = c.in.getInt(start + BinaryProtocol.GAME_OFFSET);
+			c.in.position(start + BinaryProtocol.FRAME);
+			if (opcode == BinaryProtocol.NEW) {
+				c.out.putInt(newGame());
+			} else {
+				c.out.put(execute(opcode, player, mapIndex, arg, id));
+			}
+		}
+		c.in.compact();
+	}
+
+	/**
+	 * Starts a new game and returns its ID, or BinaryProtocol.NO_GAME if the
+	 * ID doesn't fit in the 32 bits of a frame.
+	 */
+	private int newGame() {
+		long id;
+		try {
+			id = registry.create();
+		} catch (ArithmeticException e) {
+			// a journaled registry refuses IDs past 32 bits itself
+			return BinaryProtocol.NO_GAME;
+		}
+		if (id > Integer.MAX_VALUE) {
+			registry.remove(id);
+			return BinaryProtocol.NO_GAME;
+		}
+		return (int) id;
+	}
+
+	/**
+	 * Executes one request other than NEW and returns the result byte.
+	 */
+	private byte execute(byte opcode, int player, int mapIndex, int arg,
+			int id) {
+		if (opcode == BinaryProtocol.END) {
+			if (registry.remove(id)) {
+				return BinaryProtocol.OK;
+			}
+			return BinaryProtocol.ERROR;
+		}
+		// looked up every time: another connection may have ended the game
+		BattleshipGame game = registry.get(id);
+		if (game == null) {
+			return BinaryProtocol.ERROR;
+		}
+		CommandEnum who = BinaryProtocol.decodePlayer(player);
+		try {
+			synchronized (game) {
+				switch (opcode) {
+				case BinaryProtocol.ADD_SHIP:
+					if (game.addShip(mapIndex,
+							BinaryProtocol.decodeDirection(arg),
+							BinaryProtocol.decodeShip(arg), who)) {
+						return BinaryProtocol.FAILED;
+					}
+					return BinaryProtocol.OK;
+				case BinaryProtocol.FIRE:
+					if (mapIndex >= POSITIONS) {
+						return BinaryProtocol.ERROR;
+					}
+					// a batch of one shot checks the turn and repeats
+					shot[0] = mapIndex;
+					game.fireShots(shot, 1, who, outcome);
+					return outcome[0];
+				case BinaryProtocol.TURN:
+					return BinaryProtocol.encodePlayer(game.getPlayerTurn());
+				case BinaryProtocol.LOST:
+					if (game.hasPlayerLost(who)) {
+						return 1;
+					}
+					return 0;
+				default:
+					return BinaryProtocol.ERROR;
+				}
+			}
+		} catch (RuntimeException e) {
+			// bad ordinals, or positions the model rejects
+			return BinaryProtocol.ERROR;
+		}
+	}
+
+	/**
+	 * Writes pending responses, and waits for the channel to become writable
+	 * if they don't all fit.
+	 */
+	private void write(SelectionKey key) throws IOException {
+		Connection c = (Connection) key.attachment();
+		SocketChannel channel = (SocketChannel) key.channel();
+		c.out.flip();
+		channel.write(c.out);
+		c.out.compact();
+		if (c.out.position() > 0) {
+			key.interestOps(SelectionKey.OP_WRITE);
+			return;
+		}
+		key.interestOps(SelectionKey.OP_READ);
+		// frames left over for lack of room in the output buffer
+		if (c.in.position() >= BinaryProtocol.FRAME) {
+			process(c);
+			if (c.out.position() > 0) {
+				key.interestOps(SelectionKey.OP_WRITE);
+			}
+		}
+	}
+
+	/**
+	 * Closes a connection and returns its buffers to the pool.
+	 */
+	private void close(SelectionKey key) {
+		Connection c = (Connection) key.attachment();
+		key.cancel();
+		try {
+			key.channel().close();
+		} catch (IOException e) {
+			System.out.println("Could not close connection.");
+		}
+		if (c != null) {
+			giveBuffer(c.in);
+			giveBuffer(c.out);
+			key.attach(null);
+		}
+	}
+
+	/**
+	 * Takes a cleared buffer from the pool, or allocates one if it is empty.
+	 */
+	private ByteBuffer takeBuffer() {
+		ByteBuffer buffer = buffers.poll();
+		if (buffer == null) {
+			buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		}
+		return buffer;
+	}
+
+	/**
+	 * Clears a buffer and returns it to the pool.
+	 */
+	private void giveBuffer(ByteBuffer buffer) {
+		buffer.clear();
+		buffers.push(buffer);
+	}
+
+	// Main method
+	/**
+	 * Starts a server.
+	 *
+	 * @param args
+	 *            optional port to listen on, and optional directory to
+	 *            journal every game in
+	 * @throws IOException
+	 *             if the port can't be opened
+	 */
+	public static void main(String[] args) throws IOException {
+		int port = DEFAULT_PORT;
+		if (args.length > 0) {
+			port = Integer.parseInt(args[0]);
+		}
+		ServerSocketChannel server = ServerSocketChannel.open();
+		server.bind(new InetSocketAddress(port));
+		System.out.println("Battleship binary server listening on port "
+				+ port);
+		GameJournal journal = null;
+		if (args.length > 1) {
+			journal = new GameJournal(Paths.get(args[1]));
+			System.out.println("Journaling games in " + args[1] + " as run "
+					+ journal.getRun());
+		}
+		GameMetrics.install();
+		GameSessionRegistry registry = new GameSessionRegistry(journal);
+		new BattleshipNioServer(registry).serve(server);
+	}
+}
@@ -0,0 +1,267 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.reflect.Method;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Hosts many independent games in one process. Every client connection is
+ * served on its own virtual thread where the runtime has them (Java 21 and
+ * later), or on its own platform thread otherwise. Games live in a
+ * GameSessionRegistry, so the two players of a game can use separate
+ * connections.
+ *
+ * The protocol is one command per line, answered by one line:
+ *
+ * <pre>
+ * NEW                                     -> OK id
+ * PLACE id player index direction ship    -> OK | ERROR
+ * FIRE id target index                    -> MISS | HIT ship | SUNK ship
+ *                                            | REPEAT | NOT_YOUR_TURN
+ *                                            | NOT_STARTED
+ * TURN id                                 -> player1 | player2
+ * LOST id player                          -> true | false
+ * STARTED id                              -> true | false
+ * END id                                  -> OK | ERROR
+ * QUIT                                    -> closes the connection
+ * </pre>
+ *
+ * where player, direction and ship are CommandEnum and ShipEnum names. A
+ * shot is a turn of the player other than target, and is not fired if the
+ * position was already fired at, if it is target's turn, or if the fleets
+ * aren't both placed yet. Games are on 10 x 10 maps, so index is 0 to 99.
+ * Anything else is answered with ERROR and a reason.
+ *
+ * Run with: java BattleshipServer [port] [journal directory]
+ */
+public final class BattleshipServer {
+	// Fields
+	/**
+	 * Default port to listen on.
+	 */
+	private static final int DEFAULT_PORT = 4000;
+
+	/**
+	 * The number of positions on the map of every game hosted.
+	 */
+	private static final int POSITIONS = SolidBattleShipModel.DEFAULT_WIDTH
+			* SolidBattleShipModel.DEFAULT_HEIGHT;
+
+	/**
+	 * The games hosted by this server.
+	 */
+	private final GameSessionRegistry registry;
+
+	/**
+	 * Runs one task per connection.
+	 */
+	private final ExecutorService connections;
+
+	// Constructor
+	/**
+	 * Constructor.
+	 *
+	 * @param registry
+	 *            the games hosted by this server
+	 */
+	public BattleshipServer(GameSessionRegistry registry) {
+		this.registry = registry;
+		this.connections = newConnectionExecutor();
+	}
+
+	// Methods
+	/**
+	 * Returns an executor that starts a virtual thread per task if the
+	 * runtime supports them, or a platform thread per task otherwise.
+	 */
+	private static ExecutorService newConnectionExecutor() {
+		try {
+			Method virtual = Executors.class
+					.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) virtual.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			// virtual threads need Java 21
+			return Executors.newCachedThreadPool();
+		}
+	}
+
+	/**
+	 * Accepts connections until the server socket is closed.
+	 *
+	 * @param server
+	 *            the socket to accept connections on
+	 * @throws IOException
+	 *             if accepting a connection fails
+	 */
+	public void serve(ServerSocket server) throws IOException {
+		try {
+			while (!server.isClosed()) {
+				final Socket client = server.accept();
+				connections.execute(new Runnable() {
+					@Override
+					public void run() {
+						handle(client);
+					}
+				});
+			}
+		} finally {
+			connections.shutdown();
+		}
+	}
+
+	/**
+	 * Answers the commands of one client until it quits or disconnects.
+	 */
+	private void handle(Socket client) {
+		try {
+			BufferedReader in = new BufferedReader(new InputStreamReader(
+					client.getInputStream(), StandardCharsets.US_ASCII));
+			PrintWriter out = new PrintWriter(new OutputStreamWriter(
+					client.getOutputStream(), StandardCharsets.US_ASCII), true);
+			String line;
+			while ((line = in.readLine()) != null) {
+				String command = line.trim();
+				if (command.equalsIgnoreCase("QUIT")) {
+					break;
+				}
+				out.println(execute(command.split("\\s+")));
+			}
+		} catch (IOException e) {
+			System.out.println("Connection lost: " + e.getMessage());
+		} finally {
+			try {
+				client.close();
+			} catch (IOException e) {
+				System.out.println("Could not close connection.");
+			}
+		}
+	}
+
+	/**
+	 * Executes one command and returns the reply.
+	 *
+	 * @param args
+	 *            the command name followed by its arguments
+	 * @return the reply line
+	 */
+	String execute(String[] args) {
+		// needed constants
+		final int three = 3, four = 4, five = 5;
+		String name = args[0].toUpperCase();
+		try {
+			if (name.equals("NEW")) {
+				return "OK " + registry.create();
+			}
+			if (args.length < 2) {
+				return "ERROR missing game id";
+			}
+			long id = Long.parseLong(args[1]);
+			if (name.equals("END")) {
+				if (registry.remove(id)) {
+					return "OK";
+				}
+				return "ERROR no such game";
+			}
+			BattleshipGame game = registry.get(id);
+			if (game == null) {
+				return "ERROR no such game";
+			}
+			// the players of a game may be on different connections
+			synchronized (game) {
+				if (name.equals("PLACE") && args.length == 6) {
+					boolean error = game.addShip(Integer.parseInt(args[three]),
+							CommandEnum.valueOf(args[four]),
+							ShipEnum.valueOf(args[five]),
+							CommandEnum.valueOf(args[2]));
+					if (error) {
+						return "ERROR illegal placement";
+					}
+					return "OK";
+				}
+				if (name.equals("FIRE") && args.length == four) {
+					int mapIndex = Integer.parseInt(args[three]);
+					if (mapIndex < 0 || mapIndex >= POSITIONS) {
+						return "ERROR position off the map";
+					}
+					// a batch of one shot checks the turn and repeats
+					int[] shot = {mapIndex};
+					byte[] outcome = new byte[1];
+					game.fireShots(shot, 1, CommandEnum.valueOf(args[2]),
+							outcome);
+					return shotReply(outcome[0]);
+				}
+				if (name.equals("TURN") && args.length == 2) {
+					return game.getPlayerTurn().toString();
+				}
+				if (name.equals("LOST") && args.length == three) {
+					return String.valueOf(game.hasPlayerLost(CommandEnum
+							.valueOf(args[2])));
+				}
+				if (name.equals("STARTED") && args.length == 2) {
+					return String.valueOf(game.hasGameStarted());
+				}
+			}
+			return "ERROR unknown command";
+		} catch (RuntimeException e) {
+			// bad numbers, names, or positions the model rejects
+			return "ERROR " + e.getClass().getSimpleName();
+		}
+	}
+
+	/**
+	 * Returns the reply to FIRE for the outcome of the shot.
+	 */
+	private static String shotReply(byte outcome) {
+		if (outcome == ShotOutcome.REPEAT) {
+			return "REPEAT";
+		}
+		if (outcome == ShotOutcome.NOT_YOUR_TURN) {
+			return "NOT_YOUR_TURN";
+		}
+		if (outcome == ShotOutcome.NOT_STARTED) {
+			return "NOT_STARTED";
+		}
+		if (ShotOutcome.isMiss(outcome)) {
+			return "MISS";
+		}
+		if (ShotOutcome.isSunk(outcome)) {
+			return "SUNK " + ShotOutcome.ship(outcome);
+		}
+		return "HIT " + ShotOutcome.ship(outcome);
+	}
+
+	// Main method
+	/**
+	 * Starts a server.
+	 *
+	 * @param args
+	 *            optional port to listen on, and optional directory to
+	 *            journal every game in
+	 * @throws IOException
+	 *             if the port can't be opened
+	 */
+	public static void main(String[] args) throws IOException {
+		int port = DEFAULT_PORT;
+		if (args.length > 0) {
+			port = Integer.parseInt(args[0]);
+		}
+		ServerSocket server = new ServerSocket(port);
+		System.out.println("Battleship server listening on port " + port);
+		GameJournal journal = null;
+		if (args.length > 1) {
+			journal = new GameJournal(Paths.get(args[1]));
+			System.out.println("Journaling games in " + args[1] + " as run "
+					+ journal.getRun());
+		}
+		GameMetrics.install();
+		GameSessionRegistry registry = new GameSessionRegistry(journal);
+		new BattleshipServer(registry).serve(server);
+	}
+}
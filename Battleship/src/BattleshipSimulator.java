@@ -0,0 +1,346 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Plays complete SolidBattleshipGame matches between two bots without any
+ * user interface, spreading the games over every core with fork/join. Game i
+ * of a run with a given seed always plays out the same way, regardless of how
+ * the games are split over threads.
+ *
+ * Run with: java BattleshipSimulator [games] [bot1] [bot2] [seed]
+ */
+public final class BattleshipSimulator {
+	// Fields
+	/**
+	 * The number of games a task plays itself instead of splitting further.
+	 */
+	private static final int THRESHOLD = 1024;
+
+	/**
+	 * Default number of games to play.
+	 */
+	private static final long DEFAULT_GAMES = 1000000;
+
+	/**
+	 * Spreads the seeds of consecutive games over the whole long range.
+	 */
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	/**
+	 * The two players, indexed by 0 and 1.
+	 */
+	private static final CommandEnum[] PLAYERS = {CommandEnum.player1,
+			CommandEnum.player2};
+
+	// Constructor
+	/**
+	 * Private constructor for this utility class.
+	 */
+	private BattleshipSimulator() {
+	}
+
+	// Nested classes
+	/**
+	 * Aggregate results of a number of games.
+	 */
+	public static final class Result {
+		/**
+		 * The number of games played.
+		 */
+		private long games;
+
+		/**
+		 * The number of games won by each player.
+		 */
+		private final long[] wins = new long[PLAYERS.length];
+
+		/**
+		 * The total number of shots the winners needed.
+		 */
+		private long totalShots;
+
+		/**
+		 * The fewest shots a winner needed.
+		 */
+		private int minShots = Integer.MAX_VALUE;
+
+		/**
+		 * The most shots a winner needed.
+		 */
+		private int maxShots;
+
+		/**
+		 * Records a single game.
+		 */
+		private void record(int winner, int shots) {
+			games++;
+			wins[winner]++;
+			totalShots += shots;
+			minShots = Math.min(minShots, shots);
+			maxShots = Math.max(maxShots, shots);
+		}
+
+		/**
+		 * Adds the games of other to this.
+		 */
+		private void merge(Result other) {
+			games += other.games;
+			for (int i = 0; i < wins.length; i++) {
+				wins[i] += other.wins[i];
+			}
+			totalShots += other.totalShots;
+			minShots = Math.min(minShots, other.minShots);
+			maxShots = Math.max(maxShots, other.maxShots);
+		}
+
+		/**
+		 * Returns the number of games played.
+		 * 
+		 * @return the number of games
+		 */
+		public long getGames() {
+			return games;
+		}
+
+		/**
+		 * Returns the number of games won by player.
+		 * 
+		 * @requires player is player1 or player2
+		 * @param player
+		 *            the player whose wins are counted
+		 * @return the number of games player won
+		 */
+		public long getWins(CommandEnum player) {
+			if (player == CommandEnum.player1) {
+				return wins[0];
+			}
+			return wins[1];
+		}
+
+		/**
+		 * Returns the average number of shots the winner needed.
+		 * 
+		 * @return the mean number of shots fired by the winner of a game
+		 */
+		public double getAverageShots() {
+			if (games == 0) {
+				return 0;
+			}
+			return (double) totalShots / games;
+		}
+
+		/**
+		 * Returns the fewest shots a winner needed.
+		 * 
+		 * @return the minimum number of shots fired by the winner of a game
+		 */
+		public int getMinShots() {
+			return minShots;
+		}
+
+		/**
+		 * Returns the most shots a winner needed.
+		 * 
+		 * @return the maximum number of shots fired by the winner of a game
+		 */
+		public int getMaxShots() {
+			return maxShots;
+		}
+	}
+
+	/**
+	 * Plays the games numbered from first to last, exclusive.
+	 */
+	@SuppressWarnings("serial")
+	private static final class SimulationTask extends RecursiveTask<Result> {
+		/**
+		 * Creates the bots for player 1.
+		 */
+		private final BattleshipBotFactory one;
+
+		/**
+		 * Creates the bots for player 2.
+		 */
+		private final BattleshipBotFactory two;
+
+		/**
+		 * The seed of the whole run.
+		 */
+		private final long seed;
+
+		/**
+		 * The first game this task plays.
+		 */
+		private final long first;
+
+		/**
+		 * One past the last game this task plays.
+		 */
+		private final long last;
+
+		/**
+		 * Constructor.
+		 */
+		SimulationTask(BattleshipBotFactory one, BattleshipBotFactory two,
+				long seed, long first, long last) {
+			this.one = one;
+			this.two = two;
+			this.seed = seed;
+			this.first = first;
+			this.last = last;
+		}
+
+		@Override
+		protected Result compute() {
+			if (last - first <= THRESHOLD) {
+				Result result = new Result();
+				for (long i = first; i < last; i++) {
+					long gameSeed = seed + i * GOLDEN_GAMMA;
+					playGame(one.newBot(gameSeed),
+							two.newBot(gameSeed ^ GOLDEN_GAMMA), result);
+				}
+				return result;
+			}
+			// split in half, play one half here and the other in parallel
+			long middle = first + (last - first) / 2;
+			SimulationTask left = new SimulationTask(one, two, seed, first,
+					middle);
+			left.fork();
+			Result result = new SimulationTask(one, two, seed, middle, last)
+					.compute();
+			result.merge(left.join());
+			return result;
+		}
+	}
+
+	// Methods
+	/**
+	 * Plays one game between two bots and records the outcome.
+	 * 
+	 * @param one
+	 *            the bot playing player 1
+	 * @param two
+	 *            the bot playing player 2
+	 * @param result
+	 *            the results the game is added to
+	 * @ensures the game was played until a player lost, and result counts it
+	 */
+	public static void playGame(BattleshipBot one, BattleshipBot two,
+			Result result) {
+		BattleshipGame game = new SolidBattleshipGame();
+		BattleshipBot[] bots = {one, two};
+		// player 1 places first, then player 2
+		one.placeFleet(game, CommandEnum.player1);
+		two.placeFleet(game, CommandEnum.player2);
+		assert game.hasGameStarted() : "both fleets are placed";
+
+		int[] shots = new int[PLAYERS.length];
+		// each turn is a batch of one shot
+		int[] position = new int[1];
+		byte[] outcome = new byte[1];
+		while (true) {
+			int shooter = 0;
+			if (game.getPlayerTurn() == CommandEnum.player2) {
+				shooter = 1;
+			}
+			CommandEnum target = PLAYERS[1 - shooter];
+			position[0] = bots[shooter].nextShot();
+			game.fireShots(position, 1, target, outcome);
+			shots[shooter]++;
+			if (!ShotOutcome.isFired(outcome[0])) {
+				throw new IllegalStateException("bot fired twice at "
+						+ position[0]);
+			}
+			bots[shooter].shotResult(position[0],
+					ShotOutcome.ship(outcome[0]),
+					ShotOutcome.isSunk(outcome[0]));
+			if (ShotOutcome.isLost(outcome[0])) {
+				result.record(shooter, shots[shooter]);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Plays a number of games on every core of pool.
+	 * 
+	 * @param pool
+	 *            the pool the games are played on
+	 * @param games
+	 *            the number of games to play
+	 * @param one
+	 *            creates the bots for player 1
+	 * @param two
+	 *            creates the bots for player 2
+	 * @param seed
+	 *            the seed of the run
+	 * @return the aggregate results of all games
+	 */
+	public static Result simulate(ForkJoinPool pool, long games,
+			BattleshipBotFactory one, BattleshipBotFactory two, long seed) {
+		return pool.invoke(new SimulationTask(one, two, seed, 0, games));
+	}
+
+	/**
+	 * Returns the factory for the named bot.
+	 * 
+	 * @param name
+	 *            the name of a bot
+	 * @return the factory for that bot
+	 */
+	public static BattleshipBotFactory bot(String name) {
+		if (name.equals("random")) {
+			return RandomBot.factory();
+		}
+		if (name.equals("density")) {
+			return ProbabilityDensityBot.factory();
+		}
+		if (name.equals("montecarlo")) {
+			return MonteCarloBot.factory(MonteCarloBot.DEFAULT_SAMPLES,
+					MonteCarloBot.DEFAULT_MILLIS, ForkJoinPool.commonPool());
+		}
+		throw new IllegalArgumentException("Unknown bot: " + name);
+	}
+
+	// Main method
+	/**
+	 * Plays a number of games and prints the results.
+	 * 
+	 * @param args
+	 *            optional number of games, bots for player 1 and 2, and seed
+	 */
+	public static void main(String[] args) {
+		long games = DEFAULT_GAMES;
+		String one = "random", two = "random";
+		long seed = System.nanoTime();
+		final int gamesArg = 0, oneArg = 1, twoArg = 2, seedArg = 3;
+		if (args.length > gamesArg) {
+			games = Long.parseLong(args[gamesArg]);
+		}
+		if (args.length > oneArg) {
+			one = args[oneArg];
+		}
+		if (args.length > twoArg) {
+			two = args[twoArg];
+		}
+		if (args.length > seedArg) {
+			seed = Long.parseLong(args[seedArg]);
+		}
+
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		long start = System.nanoTime();
+		Result result = simulate(pool, games, bot(one), bot(two), seed);
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		System.out.printf("%d games on %d threads in %.2f s (%.0f games/s)%n",
+				result.getGames(), pool.getParallelism(), seconds,
+				result.getGames() / seconds);
+		System.out.printf("Player 1 (%s) wins: %d%n", one,
+				result.getWins(CommandEnum.player1));
+		System.out.printf("Player 2 (%s) wins: %d%n", two,
+				result.getWins(CommandEnum.player2));
+		System.out.printf("Shots to win: average %.2f, min %d, max %d%n",
+				result.getAverageShots(), result.getMinShots(),
+				result.getMaxShots());
+	}
+}
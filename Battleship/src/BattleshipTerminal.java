@@ -0,0 +1,413 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.BitSet;
+
+/**
+ * Plays a game on a text terminal, without AWT or Swing. Positions are given
+ * as a row letter and a column number, like C5, and both boards are drawn as
+ * text after every move:
+ *
+ * <pre>
+ * ~ water    o miss    X hit    A B C S D a ship of your own
+ * </pre>
+ *
+ * Two players can share the terminal, or player 2 can be one of the bots of
+ * BattleshipSimulator. When placing ships, enter a position and a direction
+ * (C5 right), or auto to place the whole fleet at random. When firing, enter
+ * a position. Enter quit at any prompt to end the game.
+ *
+ * Run with: java BattleshipTerminal [random | density | montecarlo]
+ */
+public final class BattleshipTerminal {
+	// Fields
+	/**
+	 * The ships of a complete fleet, in the order they are placed.
+	 */
+	private static final ShipEnum[] FLEET = {ShipEnum.Aircraft_Carrier,
+			ShipEnum.Battleship, ShipEnum.Cruiser, ShipEnum.Submarine,
+			ShipEnum.Destroyer};
+
+	/**
+	 * The players, in turn order.
+	 */
+	private static final CommandEnum[] PLAYERS = {CommandEnum.player1,
+			CommandEnum.player2};
+
+	/**
+	 * The number of positions in a row.
+	 */
+	private static final int ROW = SolidBattleShipModel.DEFAULT_WIDTH;
+
+	/**
+	 * The number of positions on a map.
+	 */
+	private static final int CELLS = ROW
+			* SolidBattleShipModel.DEFAULT_HEIGHT;
+
+	/**
+	 * The game being played.
+	 */
+	private final BattleshipGame game = new SolidBattleshipGame();
+
+	/**
+	 * Where commands are read from.
+	 */
+	private final BufferedReader in;
+
+	/**
+	 * Where the boards and prompts are written.
+	 */
+	private final PrintStream out;
+
+	/**
+	 * The bot playing player 2, or null if a person does.
+	 */
+	private final BattleshipBot bot;
+
+	/**
+	 * The positions fired at on each player's map, indexed like PLAYERS.
+	 */
+	private final BitSet[] shots = {new BitSet(CELLS), new BitSet(CELLS)};
+
+	// Constructor
+	/**
+	 * Constructor.
+	 *
+	 * @param in
+	 *            where commands are read from
+	 * @param out
+	 *            where the boards and prompts are written
+	 * @param bot
+	 *            the bot playing player 2, or null if a person does
+	 */
+	public BattleshipTerminal(BufferedReader in, PrintStream out,
+			BattleshipBot bot) {
+		this.in = in;
+		this.out = out;
+		this.bot = bot;
+	}
+
+	// Methods
+	/**
+	 * Plays the game until a player loses, the input ends or a player quits.
+	 *
+	 * @return the player who won, or null if the game was not finished
+	 * @throws IOException
+	 *             if reading a command fails
+	 */
+	public CommandEnum play() throws IOException {
+		if (!placeFleet(0)) {
+			return null;
+		}
+		if (bot != null) {
+			bot.placeFleet(game, CommandEnum.player2);
+		} else if (!placeFleet(1)) {
+			return null;
+		}
+		out.println("The war has begun!");
+		while (true) {
+			int shooter = 0;
+			if (game.getPlayerTurn() == CommandEnum.player2) {
+				shooter = 1;
+			}
+			int mapIndex;
+			if (shooter == 1 && bot != null) {
+				mapIndex = bot.nextShot();
+			} else {
+				mapIndex = chooseShot(shooter);
+				if (mapIndex < 0) {
+					return null;
+				}
+			}
+			if (fire(shooter, mapIndex)) {
+				out.print(render(shooter, true));
+				out.println(name(shooter) + " won. Congratulations!");
+				return PLAYERS[shooter];
+			}
+		}
+	}
+
+	/**
+	 * Asks a player to place every ship of their fleet.
+	 *
+	 * @return false if the input ended or the player quit
+	 */
+	private boolean placeFleet(int player) throws IOException {
+		out.println(name(player) + ": Deploy your ships.");
+		int placed = 0;
+		while (placed < FLEET.length) {
+			out.print(render(player, false));
+			ShipEnum ship = FLEET[placed];
+			String line = readLine(name(player) + ", place your "
+					+ shipName(ship) + " (" + PlacementTable.shipSize(ship)
+					+ " long), for example C5 right, or auto: ");
+			if (line == null) {
+				return false;
+			}
+			if (line.equalsIgnoreCase("auto") && placed == 0) {
+				new FleetGenerator(System.nanoTime()).placeFleet(game,
+						PLAYERS[player]);
+				placed = FLEET.length;
+				continue;
+			}
+			String[] words = line.split("\\s+");
+			int mapIndex = -1;
+			CommandEnum direction = null;
+			if (words.length == 2) {
+				mapIndex = parsePosition(words[0]);
+				direction = parseDirection(words[1]);
+			}
+			if (mapIndex < 0 || direction == null) {
+				out.println("Enter a position and a direction, like C5 right.");
+			} else if (game.addShip(mapIndex, direction, ship,
+					PLAYERS[player])) {
+				out.println("Illegal ship placement!");
+			} else {
+				placed++;
+			}
+		}
+		out.print(render(player, false));
+		return true;
+	}
+
+	/**
+	 * Asks a player where to fire until they name a position they haven't
+	 * fired at.
+	 *
+	 * @return the position, or -1 if the input ended or the player quit
+	 */
+	private int chooseShot(int shooter) throws IOException {
+		if (bot == null) {
+			// the other player shouldn't see this player's fleet
+			if (readLine(name(shooter) + ", press Enter when ready.") == null) {
+				return -1;
+			}
+		}
+		out.print(render(shooter, false));
+		while (true) {
+			String line = readLine(name(shooter) + ", fire at: ");
+			if (line == null) {
+				return -1;
+			}
+			int mapIndex = parsePosition(line);
+			if (mapIndex < 0) {
+				out.println("Enter a position like C5.");
+			} else if (shots[1 - shooter].get(mapIndex)) {
+				out.println("You have already fired at "
+						+ positionName(mapIndex) + ".");
+			} else {
+				return mapIndex;
+			}
+		}
+	}
+
+	/**
+	 * Fires at a position on the other player's map and reports the outcome.
+	 *
+	 * @return true if the shot made the other player lose
+	 */
+	private boolean fire(int shooter, int mapIndex) {
+		CommandEnum target = PLAYERS[1 - shooter];
+		ShipEnum hit = game.fireShot(mapIndex, target);
+		shots[1 - shooter].set(mapIndex);
+		boolean sunk = hit != ShipEnum.empty && game.isShipSunk(hit, target);
+		if (shooter == 1 && bot != null) {
+			bot.shotResult(mapIndex, hit, sunk);
+		}
+		StringBuilder report = new StringBuilder();
+		report.append(name(shooter)).append(" fires at ")
+				.append(positionName(mapIndex)).append(": ");
+		if (hit == ShipEnum.empty) {
+			report.append("miss.");
+		} else if (sunk) {
+			report.append(shipName(hit)).append(" destroyed!");
+		} else {
+			report.append("hit.");
+		}
+		out.println(report);
+		return sunk && game.hasPlayerLost(target);
+	}
+
+	/**
+	 * Returns the next line typed, trimmed, after writing prompt.
+	 *
+	 * @return the line, or null if the input ended or quit was typed
+	 */
+	private String readLine(String prompt) throws IOException {
+		out.print(prompt);
+		out.flush();
+		String line = in.readLine();
+		if (line == null) {
+			out.println();
+			return null;
+		}
+		line = line.trim();
+		if (line.equalsIgnoreCase("quit")) {
+			return null;
+		}
+		return line;
+	}
+
+	/**
+	 * Draws a player's fleet next to their shots at the other player, with
+	 * the other player's ships shown only if reveal is true.
+	 */
+	private String render(int player, boolean reveal) {
+		// needed constants
+		final String gap = "     ";
+		final int height = CELLS / ROW, twoDigits = 10, three = 3;
+		StringBuilder text = new StringBuilder();
+		text.append('\n').append(padRight("   Your fleet", ROW * three + 2))
+				.append(gap).append("   Your shots\n");
+		StringBuilder header = new StringBuilder("  ");
+		for (int c = 1; c <= ROW; c++) {
+			// column numbers are right aligned over their symbols
+			header.append(' ');
+			if (c < twoDigits) {
+				header.append(' ');
+			}
+			header.append(c);
+		}
+		text.append(header).append(gap).append(header).append('\n');
+		for (int r = 0; r < height; r++) {
+			text.append((char) ('A' + r)).append(' ');
+			for (int c = 0; c < ROW; c++) {
+				text.append("  ").append(symbol(player, r * ROW + c, true));
+			}
+			text.append(gap).append((char) ('A' + r)).append(' ');
+			for (int c = 0; c < ROW; c++) {
+				text.append("  ").append(
+						symbol(1 - player, r * ROW + c, reveal));
+			}
+			text.append('\n');
+		}
+		text.append('\n');
+		return text.toString();
+	}
+
+	/**
+	 * Returns the symbol of a position on a player's map, with a ship that
+	 * hasn't been hit shown only if reveal is true.
+	 */
+	private char symbol(int player, int mapIndex, boolean reveal) {
+		ShipEnum token = game.getGridToken(mapIndex, PLAYERS[player]);
+		if (token == ShipEnum.hit) {
+			return 'X';
+		}
+		if (shots[player].get(mapIndex)) {
+			return 'o';
+		}
+		if (token == ShipEnum.empty || !reveal) {
+			return '~';
+		}
+		return token.name().charAt(0);
+	}
+
+	/**
+	 * Returns s followed by spaces up to width characters.
+	 */
+	private static String padRight(String s, int width) {
+		StringBuilder padded = new StringBuilder(s);
+		while (padded.length() < width) {
+			padded.append(' ');
+		}
+		return padded.toString();
+	}
+
+	/**
+	 * Returns "Player 1" or "Player 2".
+	 */
+	private static String name(int player) {
+		return "Player " + (player + 1);
+	}
+
+	/**
+	 * Returns the name of a ship as it is written in messages.
+	 */
+	private static String shipName(ShipEnum ship) {
+		return ship.name().replace('_', ' ');
+	}
+
+	/**
+	 * Parses a position like C5, upper or lower case.
+	 *
+	 * @param text
+	 *            a row letter followed by a column number
+	 * @return the position, or -1 if text isn't a position on the map
+	 */
+	public static int parsePosition(String text) {
+		final int height = CELLS / ROW, radix = 10;
+		if (text.length() < 2) {
+			return -1;
+		}
+		int row = Character.toUpperCase(text.charAt(0)) - 'A';
+		int column = 0;
+		for (int k = 1; k < text.length(); k++) {
+			char digit = text.charAt(k);
+			if (digit < '0' || digit > '9' || column > ROW) {
+				return -1;
+			}
+			column = column * radix + (digit - '0');
+		}
+		if (row < 0 || row >= height || column < 1 || column > ROW) {
+			return -1;
+		}
+		return row * ROW + column - 1;
+	}
+
+	/**
+	 * Returns the name of a position, like C5.
+	 *
+	 * @requires 0 <= mapIndex < CELLS
+	 * @param mapIndex
+	 *            the position
+	 * @return its row letter followed by its column number
+	 */
+	public static String positionName(int mapIndex) {
+		return (char) ('A' + mapIndex / ROW) + Integer.toString(
+				mapIndex % ROW + 1);
+	}
+
+	/**
+	 * Parses a direction: up, down, left or right, or its first letter.
+	 *
+	 * @return the direction, or null if text isn't one
+	 */
+	private static CommandEnum parseDirection(String text) {
+		String d = text.toLowerCase();
+		if (d.equals("up") || d.equals("u")) {
+			return CommandEnum.up;
+		}
+		if (d.equals("down") || d.equals("d")) {
+			return CommandEnum.down;
+		}
+		if (d.equals("left") || d.equals("l")) {
+			return CommandEnum.left;
+		}
+		if (d.equals("right") || d.equals("r")) {
+			return CommandEnum.right;
+		}
+		return null;
+	}
+
+	// Main method
+	/**
+	 * Plays one game on the terminal.
+	 *
+	 * @param args
+	 *            optional name of the bot playing player 2
+	 * @throws IOException
+	 *             if reading the terminal fails
+	 */
+	public static void main(String[] args) throws IOException {
+		BattleshipBot bot = null;
+		if (args.length > 0) {
+			bot = BattleshipSimulator.bot(args[0]).newBot(System.nanoTime());
+		}
+		BufferedReader in = new BufferedReader(new InputStreamReader(
+				System.in));
+		new BattleshipTerminal(in, System.out, bot).play();
+	}
+}
@@ -1,17 +1,13 @@
 import java.awt.BorderLayout;
 import java.awt.Dimension;
-import java.awt.GridLayout;
 import java.awt.TextField;
 import java.awt.Toolkit;
 import java.awt.event.ActionListener;
-import java.net.MalformedURLException;
-import java.net.URL;
 
 import javax.swing.ButtonGroup;
-import javax.swing.ImageIcon;
+import javax.swing.Icon;
 import javax.swing.JButton;
 import javax.swing.JFrame;
-import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JRadioButton;
@@ -79,118 +75,24 @@ public final class BattleshipView extends JFrame {
 	 */
 	private JPanel pane = new JPanel();
 	/**
-	 * Grid size.
+	 * Grid size, the number of positions on the model's default map.
 	 */
-	static final int SIZE = 100;
+	static final int SIZE = SolidBattleShipModel.DEFAULT_WIDTH
+			* SolidBattleShipModel.DEFAULT_HEIGHT;
 	/**
 	 * Identifies player.
 	 */
 	private int player = 0;
 	/**
-	 * Represents a 10x10 grid of buttons.
+	 * Images for grid positions, shared by every view and loaded in the
+	 * background.
 	 */
-	private JButton[] grid = new JButton[SIZE];
+	private Icon defaultImage = BoardImage.WATER,
+			disabledImage = BoardImage.SHIP;
 	/**
-	 * Default images for grid buttons.
+	 * Represents a 10x10 grid of positions, painted as one component.
 	 */
-	private ImageIcon defaultImage = null, disabledImage = null;
-
-	/**
-	 * Adds labels and buttons to a panel with a grid layout.
-	 * 
-	 * @return a JPanel using GridLayout with 11 rows and 11 columns, <br />
-	 *         each row in column 1 is labeled alphabetically, starting at row
-	 *         2, <br />
-	 *         each column in row 1 is labeled numerically, starting at column
-	 *         2, <br />
-	 *         and the remaining cells are made into buttons
-	 */
-	private JPanel populateGrid() {
-		final int x = 11;
-		final int y = 11;
-
-		JPanel panel = new JPanel();
-		panel.setLayout(new GridLayout(x, y));
-		// make first cell blank
-		panel.add(new JLabel(""));
-		// label the 10 columns
-		panel.add(new JLabel("1"));
-		panel.add(new JLabel("2"));
-		panel.add(new JLabel("3"));
-		panel.add(new JLabel("4"));
-		panel.add(new JLabel("5"));
-		panel.add(new JLabel("6"));
-		panel.add(new JLabel("7"));
-		panel.add(new JLabel("8"));
-		panel.add(new JLabel("9"));
-		panel.add(new JLabel("10"));
-
-		int count = y + 1;
-		int btnCount = 0;
-
-		// constants for row label locations
-		final int a = y + 1;
-		final int b = a * 2;
-		final int c = a * 3;
-		final int d = a * 4;
-		final int e = a * 5;
-		final int f = a * 6;
-		final int g = a * 7;
-		final int h = a * 8;
-		final int i = a * 9;
-		final int j = a * 10;
-
-		// add labels to each row in column 1 and
-		// add buttons everywhere else
-		while (count < (x * y) + y) {
-			if (count % (x + 1) <= 1) {
-				// add label to row
-				switch (count) {
-				case a:
-					panel.add(new JLabel("A"));
-					break;
-				case b:
-					panel.add(new JLabel("B"));
-					break;
-				case c:
-					panel.add(new JLabel("C"));
-					break;
-				case d:
-					panel.add(new JLabel("D"));
-					break;
-				case e:
-					panel.add(new JLabel("E"));
-					break;
-				case f:
-					panel.add(new JLabel("F"));
-					break;
-				case g:
-					panel.add(new JLabel("G"));
-					break;
-				case h:
-					panel.add(new JLabel("H"));
-					break;
-				case i:
-					panel.add(new JLabel("I"));
-					break;
-				case j:
-					panel.add(new JLabel("J"));
-					break;
-				default:
-					break;
-				}
-			} else {
-				// add a button
-				JButton button = new JButton();
-				panel.add(button);
-				grid[btnCount] = button;
-				grid[btnCount].setIcon(defaultImage);
-				btnCount++;
-			}
-			count++;
-		}
-		return panel;
-	}
+	private BoardComponent grid;
 
 	/**
 	 * Initializes shipTool by adding all the ship buttons to it.
@@ -244,14 +146,11 @@ public final class BattleshipView extends JFrame {
 		super(name);
 		assert player == 1 || player == 2 : "1 <= player <= 2";
 		this.player = player;
-		try {
-			defaultImage = new ImageIcon(new URL(
-					"http://a0.twimg.com/profile_images/"
-							+ "77185680/Water1_normal.gif"));
-			disabledImage = new ImageIcon(new URL("http://www.scalehobbyist.com/images/" 
-					+	"catagorypics/battleship_3.jpg"));
-		} catch (MalformedURLException e) {
-			System.out.println("Invalid URL.");
+		grid = new BoardComponent(SolidBattleShipModel.DEFAULT_WIDTH,
+				SolidBattleShipModel.DEFAULT_HEIGHT, defaultImage);
+		for (int i = 0; i < SIZE; i++) {
+			// positions fired at are disabled
+			grid.setDisabledIcon(i, BoardImage.MISS);
 		}
 		pane.setLayout(new BorderLayout());
 		// set preferred size to half screen width and height
@@ -262,7 +161,7 @@ public final class BattleshipView extends JFrame {
 		pane.add(shipTool, BorderLayout.NORTH);
 		buildOrientationToolbar();
 		pane.add(orientationTool, BorderLayout.SOUTH);
-		pane.add(populateGrid(), BorderLayout.CENTER);
+		pane.add(grid, BorderLayout.CENTER);
 		// finalize
 		this.setContentPane(pane);
 		this.pack();
@@ -361,7 +260,7 @@ public final class BattleshipView extends JFrame {
 	 */
 	public void setShipIcon(int i) {
 		assert 0 <= i && i <= (SIZE - 1) : "0 <= i <= SIZE - 1";
-		grid[i].setIcon(disabledImage);
+		grid.setIcon(i, disabledImage);
 	}
 
 	/**
@@ -372,8 +271,8 @@ public final class BattleshipView extends JFrame {
 	 */
 	public void setShipDisabledIcon(int i) {
 		assert 0 <= i && i <= (SIZE - 1) : "0 <= i <= SIZE - 1";
-		grid[i].setIcon(disabledImage);
-		grid[i].setDisabledIcon(disabledImage);
+		grid.setIcon(i, disabledImage);
+		grid.setDisabledIcon(i, disabledImage);
 	}
 
 	/**
@@ -385,7 +284,7 @@ public final class BattleshipView extends JFrame {
 	 */
 	public void clearIcon(int i) {
 		assert 0 <= i && i <= (SIZE - 1) : "0 <= i <= SIZE - 1";
-		grid[i].setIcon(defaultImage);
+		grid.setIcon(i, defaultImage);
 	}
 
 	/**
@@ -397,8 +296,8 @@ public final class BattleshipView extends JFrame {
 	 */
 	public void completeClearIcon(int i) {
 		assert 0 <= i && i <= (SIZE - 1) : "0 <= i <= SIZE - 1";
-		grid[i].setIcon(defaultImage);
-		grid[i].setDisabledIcon(defaultImage);
+		grid.setIcon(i, defaultImage);
+		grid.setDisabledIcon(i, defaultImage);
 	}
 
 
@@ -407,7 +306,7 @@ public final class BattleshipView extends JFrame {
 	 */
 	public void clearAll() {
 		for (int i = 0; i < BattleshipView.SIZE; i++) {
-			grid[i].setIcon(defaultImage);
+			grid.setIcon(i, defaultImage);
 		}
 	}
 
@@ -421,52 +320,29 @@ public final class BattleshipView extends JFrame {
 	}
 
 	/**
-	 * Retrieves the grid button at i.
+	 * Enables or disables the grid position at i. A disabled position ignores
+	 * clicks and shows its disabled icon.
 	 * 
 	 * @requires 0 <= i <= SIZE - 1
 	 * @param i
-	 *            grid button index
-	 * @return button at location i of grid
+	 *            grid position index
+	 * @param enabled
+	 *            true to enable the position, false to disable it
 	 */
-	public JButton getGridButton(int i) {
+	public void setGridButtonEnabled(int i, boolean enabled) {
 		assert 0 <= i && i <= (SIZE - 1) : "0 <= i <= SIZE - 1";
-		return grid[i];
+		grid.setEnabled(i, enabled);
 	}
 
 	/**
-	 * Adds an action listener to the button at location i of grid.
+	 * Sets the listener told about clicks on the grid. It is set once and
+	 * decides itself whose turn it is.
 	 * 
-	 * @requires 0 <= i <= SIZE - 1
-	 * @param bal
-	 *            button action listener to be added
-	 * @param i
-	 *            grid button index
+	 * @param listener
+	 *            told about every click on an enabled grid position
 	 */
-	public void addGridButtonListener(ActionListener bal, int i) {
-		assert 0 <= i && i <= (SIZE - 1) : "0 <= i <= SIZE - 1";
-		String command = null;
-		if (this.player == 1) {
-			command = "a";
-		} else {
-			command = "b";
-		}
-		grid[i].addActionListener(bal);
-		grid[i].setActionCommand(command.concat(Integer.toString(i)));
-	}
-
-	/**
-	 * Removes the specified action listener from the button at location i of
-	 * grid.
-	 * 
-	 * @requires 0 <= i <= SIZE - 1
-	 * @param bal
-	 *            button action listener to be removed
-	 * @param i
-	 *            grid button index
-	 */
-	public void removeGridButtonListener(ActionListener bal, int i) {
-		assert 0 <= i && i <= (SIZE - 1) : "0 <= i <= SIZE - 1";
-		grid[i].removeActionListener(bal);
+	public void setGridListener(GridListener listener) {
+		grid.setGridListener(listener);
 	}
 
 	/**
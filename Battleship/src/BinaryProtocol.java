@@ -0,0 +1,249 @@
+import java.nio.ByteBuffer;
+
+/**
+ * The fixed-size binary protocol served by BattleshipNioServer. Every request
+ * is an 8-byte frame:
+ *
+ * <pre>
+ * byte 0     opcode
+ * byte 1     player: 0 for player1, 1 for player2
+ * byte 2     map index, 0 to 99
+ * byte 3     ADD_SHIP only: direction ordinal in the high nibble, ship
+ *            ordinal in the low nibble
+ * bytes 4-7  game ID, big-endian
+ * </pre>
+ *
+ * Every request is answered with a single result byte, except NEW, which is
+ * answered with the 4-byte ID of the new game. Game IDs are 32 bits on the
+ * wire, so once the registry has handed out Integer.MAX_VALUE IDs, NEW starts
+ * no game and is answered with NO_GAME. Requests may be pipelined; results
+ * come back in request order.
+ */
+public final class BinaryProtocol {
+	// Fields
+	/**
+	 * The size of a request frame in bytes.
+	 */
+	public static final int FRAME = 8;
+
+	/**
+	 * The offset of the game ID in a request frame.
+	 */
+	public static final int GAME_OFFSET = 4;
+
+	/**
+	 * The ID NEW is answered with when no game was started. Game IDs start
+	 * at 1.
+	 */
+	public static final int NO_GAME = 0;
+
+	/**
+	 * Starts a new game. Answered with its 4-byte ID, or NO_GAME.
+	 */
+	public static final byte NEW = 0;
+
+	/**
+	 * addShip for player. Answered with OK or FAILED.
+	 */
+	public static final byte ADD_SHIP = 1;
+
+	/**
+	 * A one-shot turn at player's map. Answered with a shot result, which is
+	 * REPEAT, NOT_YOUR_TURN or NOT_STARTED if the shot was not fired.
+	 */
+	public static final byte FIRE = 2;
+
+	/**
+	 * getPlayerTurn. Answered with the player byte.
+	 */
+	public static final byte TURN = 3;
+
+	/**
+	 * hasPlayerLost for player. Answered with 1 if player lost, else 0.
+	 */
+	public static final byte LOST = 4;
+
+	/**
+	 * Ends a game. Answered with OK or ERROR.
+	 */
+	public static final byte END = 5;
+
+	/**
+	 * The request succeeded.
+	 */
+	public static final byte OK = 0;
+
+	/**
+	 * addShip returned an error.
+	 */
+	public static final byte FAILED = 1;
+
+	/**
+	 * The request was malformed, named an unknown game, or the model
+	 * rejected it.
+	 */
+	public static final byte ERROR = (byte) 0xFF;
+
+	/**
+	 * The shot result of a position that had already been fired at.
+	 */
+	public static final byte REPEAT = ShotOutcome.REPEAT;
+
+	/**
+	 * The shot result of a shot at the player whose turn it was.
+	 */
+	public static final byte NOT_YOUR_TURN = ShotOutcome.NOT_YOUR_TURN;
+
+	/**
+	 * The shot result of a shot before both fleets were placed.
+	 */
+	public static final byte NOT_STARTED = ShotOutcome.NOT_STARTED;
+
+	/**
+	 * Set in a shot result if the shot sank the ship.
+	 */
+	public static final int SUNK = ShotOutcome.SUNK;
+
+	/**
+	 * Set in a shot result if the target has lost.
+	 */
+	public static final int TARGET_LOST = ShotOutcome.LOST;
+
+	/**
+	 * Masks the ShipEnum ordinal in a shot result.
+	 */
+	public static final int SHIP_MASK = ShotOutcome.SHIP_MASK;
+
+	/**
+	 * The nibble size used to pack direction and ship.
+	 */
+	private static final int NIBBLE = 4;
+
+	/**
+	 * CommandEnum values, cached because values() returns a new array.
+	 */
+	private static final CommandEnum[] COMMANDS = CommandEnum.values();
+
+	/**
+	 * ShipEnum values, cached because values() returns a new array.
+	 */
+	private static final ShipEnum[] SHIPS = ShipEnum.values();
+
+	// Constructor
+	/**
+	 * Private constructor for this utility class.
+	 */
+	private BinaryProtocol() {
+	}
+
+	// Methods
+	/**
+	 * Writes a request frame into buffer.
+	 * 
+	 * @param buffer
+	 *            the buffer the frame is written to
+	 * @param opcode
+	 *            the request
+	 * @param player
+	 *            the player, or null if the request has none
+	 * @param mapIndex
+	 *            the map index, or 0 if the request has none
+	 * @param direction
+	 *            the placement direction, or null unless opcode is ADD_SHIP
+	 * @param ship
+	 *            the ship, or null unless opcode is ADD_SHIP
+	 * @param game
+	 *            the game ID, or 0 for NEW
+	 * @requires buffer has at least FRAME bytes remaining
+	 */
+	public static void putRequest(ByteBuffer buffer, byte opcode,
+			CommandEnum player, int mapIndex, CommandEnum direction,
+			ShipEnum ship, int game) {
+		int arg = 0;
+		if (direction != null && ship != null) {
+			arg = direction.ordinal() << NIBBLE | ship.ordinal();
+		}
+		buffer.put(opcode);
+		buffer.put(encodePlayer(player));
+		buffer.put((byte) mapIndex);
+		buffer.put((byte) arg);
+		buffer.putInt(game);
+	}
+
+	/**
+	 * Returns the player byte of a player.
+	 * 
+	 * @param player
+	 *            player1, player2, or null
+	 * @return 1 for player2, otherwise 0
+	 */
+	public static byte encodePlayer(CommandEnum player) {
+		if (player == CommandEnum.player2) {
+			return 1;
+		}
+		return 0;
+	}
+
+	/**
+	 * Returns the player named by a player byte.
+	 * 
+	 * @param player
+	 *            a player byte
+	 * @return player2 for 1, otherwise player1
+	 */
+	public static CommandEnum decodePlayer(int player) {
+		if (player == 1) {
+			return CommandEnum.player2;
+		}
+		return CommandEnum.player1;
+	}
+
+	/**
+	 * Returns the direction packed into an argument byte.
+	 * 
+	 * @param arg
+	 *            the argument byte of an ADD_SHIP frame
+	 * @return the placement direction
+	 */
+	public static CommandEnum decodeDirection(int arg) {
+		return COMMANDS[(arg & 0xFF) >>> NIBBLE];
+	}
+
+	/**
+	 * Returns the ship packed into an argument byte.
+	 * 
+	 * @param arg
+	 *            the argument byte of an ADD_SHIP frame
+	 * @return the ship
+	 */
+	public static ShipEnum decodeShip(int arg) {
+		return SHIPS[arg & ((1 << NIBBLE) - 1)];
+	}
+
+	/**
+	 * Returns the shot result byte for the outcome of fireShot, which is its
+	 * ShotOutcome.
+	 * 
+	 * @param hit
+	 *            the token fireShot returned
+	 * @param sunk
+	 *            true if the shot sank hit
+	 * @param lost
+	 *            true if the target has lost
+	 * @return the result byte
+	 */
+	public static byte encodeShot(ShipEnum hit, boolean sunk, boolean lost) {
+		return ShotOutcome.encode(hit, sunk, lost);
+	}
+
+	/**
+	 * Returns the token fireShot returned, from a shot result byte.
+	 * 
+	 * @param result
+	 *            the shot result byte of a shot that was fired
+	 * @return the ship that was hit, or empty for a miss
+	 */
+	public static ShipEnum decodeShot(byte result) {
+		return ShotOutcome.ship(result);
+	}
+}
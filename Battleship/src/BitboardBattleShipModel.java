@@ -0,0 +1,254 @@
+/**
+ * This class implements the BattleShipModel interface using bitboards. The 100
+ * positions of the map are split over two longs: positions 0 to 63 are stored
+ * in the low word and positions 64 to 99 in the high word. Every ship type has
+ * its own pair of words, and a further pair records every position a shot has
+ * been fired at.
+ *
+ * @convention shipLow and shipHigh have one entry for each ship type, indexed
+ *             by ordinal, and no bit above position 99 is ever set
+ *
+ * @correspondence boardMap is a map with 100 positions, where a position holds
+ *                 hit if its bit is set in both a ship mask and the shot mask,
+ *                 the ship type if its bit is set only in that ship's mask,
+ *                 and empty otherwise
+ */
+public final class BitboardBattleShipModel implements BattleShipModel {
+	// Fields
+	/**
+	 * Sets the lower bound of boardMap's grid.
+	 */
+	private static final int MAPMIN = 0;
+
+	/**
+	 * Sets the upper bound of boardMap's grid.
+	 */
+	private static final int MAPMAX = 99;
+
+	/**
+	 * Number of positions stored in the low word.
+	 */
+	private static final int WORD = 64;
+
+	/**
+	 * The ships, indexed by ordinal.
+	 */
+	private static final ShipEnum[] SHIPS = {ShipEnum.Aircraft_Carrier,
+			ShipEnum.Battleship, ShipEnum.Cruiser, ShipEnum.Submarine,
+			ShipEnum.Destroyer};
+
+	/**
+	 * The number of positions occupied by a complete fleet.
+	 */
+	private static final int FLEET_SIZE = 17;
+
+	/**
+	 * Positions 0 to 63 occupied by each ship.
+	 */
+	private final long[] shipLow = new long[SHIPS.length];
+
+	/**
+	 * Positions 64 to 99 occupied by each ship.
+	 */
+	private final long[] shipHigh = new long[SHIPS.length];
+
+	/**
+	 * Positions 0 to 63 occupied by any ship.
+	 */
+	private long fleetLow;
+
+	/**
+	 * Positions 64 to 99 occupied by any ship.
+	 */
+	private long fleetHigh;
+
+	/**
+	 * Positions 0 to 63 that have been fired at.
+	 */
+	private long shotLow;
+
+	/**
+	 * Positions 64 to 99 that have been fired at.
+	 */
+	private long shotHigh;
+
+	/**
+	 * Told about every position whose token changes, or null.
+	 */
+	private CellListener listener;
+
+	// Constructor
+	/**
+	 * Constructor.
+	 *
+	 * @initially every position in boardMap is empty and no shots have been
+	 *            fired.
+	 */
+	public BitboardBattleShipModel() {
+		// all words start out as zero
+	}
+
+	// Methods
+	@Override
+	public boolean addShip(int mapIndex, CommandEnum placeDirection,
+			ShipEnum shipType) {
+		// look up the footprint, which is empty if the ship doesn't fit
+		int size = PlacementTable.shipSize(shipType);
+		long low = PlacementTable.lowMask(size, placeDirection, mapIndex);
+		long high = PlacementTable.highMask(size, placeDirection, mapIndex);
+		if ((low | high) == 0) {
+			return true;
+		}
+		// ships may not overlap
+		if ((low & fleetLow) != 0 || (high & fleetHigh) != 0) {
+			return true;
+		}
+		shipLow[shipType.ordinal()] |= low;
+		shipHigh[shipType.ordinal()] |= high;
+		fleetLow |= low;
+		fleetHigh |= high;
+		tellListener(low, high);
+		return false;
+	}
+
+	@Override
+	public ShipEnum fireShot(int mapIndex) {
+		assert MAPMIN <= mapIndex && mapIndex <= MAPMAX : "0 <= mapIndex < 100";
+		// a repeated shot at a ship finds the hit token that is already there
+		ShipEnum token = getGridToken(mapIndex);
+		if (mapIndex < WORD) {
+			shotLow |= 1L << mapIndex;
+		} else {
+			shotHigh |= 1L << (mapIndex - WORD);
+		}
+		if (listener != null && token != ShipEnum.empty
+				&& token != ShipEnum.hit) {
+			listener.cellChanged(mapIndex);
+		}
+		return token;
+	}
+
+	/**
+	 * Fires at every position of a volley at once, and returns the ships the
+	 * volley sank.
+	 *
+	 * @param low
+	 *            positions 0 to 63 fired at
+	 * @param high
+	 *            positions 64 to 99 fired at
+	 * @return a mask with bit i set if the ship with ordinal i was afloat
+	 *         before the volley and has sunk
+	 */
+	public int fireVolley(long low, long high) {
+		// only ships the volley hits can sink
+		long hitLow = low & fleetLow & ~shotLow;
+		long hitHigh = high & fleetHigh & ~shotHigh;
+		shotLow |= low;
+		shotHigh |= high;
+		tellListener(hitLow, hitHigh);
+		int sunk = 0;
+		for (int i = 0; i < SHIPS.length; i++) {
+			if (((shipLow[i] & hitLow) | (shipHigh[i] & hitHigh)) != 0
+					&& isShipSunk(SHIPS[i])) {
+				sunk |= 1 << i;
+			}
+		}
+		return sunk;
+	}
+
+	@Override
+	public boolean loseCheck() {
+		// every position of the complete fleet must have been fired at
+		return Long.bitCount(fleetLow & shotLow)
+				+ Long.bitCount(fleetHigh & shotHigh) == FLEET_SIZE;
+	}
+
+	@Override
+	public boolean isShipSunk(ShipEnum ship) {
+		// a ship is sunk once as many of its positions were hit as it is long
+		int i = ship.ordinal();
+		return Long.bitCount(shipLow[i] & shotLow)
+				+ Long.bitCount(shipHigh[i] & shotHigh) >= PlacementTable
+				.shipSize(ship);
+	}
+
+	@Override
+	public void setCellListener(CellListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Tells the listener, if any, about every position of (low, high).
+	 */
+	private void tellListener(long low, long high) {
+		if (listener == null) {
+			return;
+		}
+		while (low != 0) {
+			listener.cellChanged(Long.numberOfTrailingZeros(low));
+			low &= low - 1;
+		}
+		while (high != 0) {
+			listener.cellChanged(WORD + Long.numberOfTrailingZeros(high));
+			high &= high - 1;
+		}
+	}
+
+	@Override
+	public int getWidth() {
+		return SolidBattleShipModel.DEFAULT_WIDTH;
+	}
+
+	@Override
+	public int getHeight() {
+		return SolidBattleShipModel.DEFAULT_HEIGHT;
+	}
+
+	@Override
+	public ShipEnum getGridToken(Integer gridIndex) {
+		return getGridToken(gridIndex.intValue());
+	}
+
+	/**
+	 * Returns the token at gridIndex without boxing the index.
+	 *
+	 * @param gridIndex
+	 *            The position to get the token from on boardMap.
+	 * @return the ShipEnum at position gridIndex - either a type of ship, hit,
+	 *         or empty - or null if gridIndex is not on the map
+	 */
+	public ShipEnum getGridToken(int gridIndex) {
+		// shift counts are taken mod 64, so check the range first
+		if (gridIndex < MAPMIN || gridIndex > MAPMAX) {
+			return null;
+		}
+		// pick the word and bit that hold gridIndex
+		long fleet, shot, bit;
+		int word;
+		if (gridIndex < WORD) {
+			bit = 1L << gridIndex;
+			fleet = fleetLow;
+			shot = shotLow;
+			word = 0;
+		} else {
+			bit = 1L << (gridIndex - WORD);
+			fleet = fleetHigh;
+			shot = shotHigh;
+			word = 1;
+		}
+		if ((fleet & bit) == 0) {
+			return ShipEnum.empty;
+		}
+		if ((shot & bit) != 0) {
+			return ShipEnum.hit;
+		}
+		// find the ship that occupies the position
+		long[] ships = word == 0 ? shipLow : shipHigh;
+		for (int i = 0; i < SHIPS.length; i++) {
+			if ((ships[i] & bit) != 0) {
+				return SHIPS[i];
+			}
+		}
+		return ShipEnum.empty;
+	}
+}
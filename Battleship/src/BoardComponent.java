@@ -0,0 +1,338 @@
+import java.awt.Dimension;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.BitSet;
+
+import javax.swing.Icon;
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+
+/**
+ * A grid of positions painted by one component, with the rows labeled
+ * alphabetically down the left and the columns numerically across the top.
+ * It stands in for a grid of buttons: every position has an icon and a
+ * disabled icon, and a click on an enabled position is reported to the one
+ * GridListener of the board. Changing a position repaints only that position.
+ *
+ * @convention icons.length = disabledIcons.length = columns * rows
+ */
+@SuppressWarnings("serial")
+public final class BoardComponent extends JComponent {
+	// Fields
+	/**
+	 * Space around an icon in a position, in pixels.
+	 */
+	private static final int PADDING = 6;
+
+	/**
+	 * The number of positions in a row.
+	 */
+	private final int columns;
+
+	/**
+	 * The number of rows.
+	 */
+	private final int rows;
+
+	/**
+	 * The labels above the columns.
+	 */
+	private final String[] columnLabels;
+
+	/**
+	 * The labels left of the rows.
+	 */
+	private final String[] rowLabels;
+
+	/**
+	 * The icon of every position.
+	 */
+	private final Icon[] icons;
+
+	/**
+	 * The icon of every position while it is disabled, or null to use its
+	 * icon.
+	 */
+	private final Icon[] disabledIcons;
+
+	/**
+	 * The positions that ignore clicks.
+	 */
+	private final BitSet disabled = new BitSet();
+
+	/**
+	 * Told about every click on an enabled position, or null.
+	 */
+	private GridListener listener;
+
+	/**
+	 * The position the mouse was pressed on, or -1.
+	 */
+	private int pressed = -1;
+
+	// Constructor
+	/**
+	 * Constructor.
+	 *
+	 * @requires columns > 0 and rows > 0
+	 * @param columns
+	 *            the number of positions in a row
+	 * @param rows
+	 *            the number of rows
+	 * @param icon
+	 *            the icon every position starts with
+	 */
+	public BoardComponent(int columns, int rows, Icon icon) {
+		assert columns > 0 && rows > 0 : "columns > 0 and rows > 0";
+		this.columns = columns;
+		this.rows = rows;
+		int size = Math.multiplyExact(columns, rows);
+		icons = new Icon[size];
+		disabledIcons = new Icon[size];
+		for (int i = 0; i < size; i++) {
+			icons[i] = icon;
+		}
+		columnLabels = new String[columns];
+		for (int c = 0; c < columns; c++) {
+			columnLabels[c] = Integer.toString(c + 1);
+		}
+		rowLabels = new String[rows];
+		for (int r = 0; r < rows; r++) {
+			rowLabels[r] = rowLabel(r);
+		}
+		setOpaque(true);
+		addMouseListener(new CellMouseListener());
+	}
+
+	// Nested classes
+	/**
+	 * Nested class that reports a press and release on the same enabled
+	 * position to the listener.
+	 */
+	private class CellMouseListener extends MouseAdapter {
+		@Override
+		public void mousePressed(MouseEvent e) {
+			pressed = -1;
+			if (SwingUtilities.isLeftMouseButton(e)) {
+				pressed = positionAt(e.getX(), e.getY());
+			}
+		}
+
+		@Override
+		public void mouseReleased(MouseEvent e) {
+			int i = pressed;
+			pressed = -1;
+			if (i >= 0 && SwingUtilities.isLeftMouseButton(e)
+					&& positionAt(e.getX(), e.getY()) == i && !disabled.get(i)
+					&& listener != null) {
+				listener.positionClicked(i);
+			}
+		}
+	}
+
+	// Methods
+	/**
+	 * Returns the label of row r: A to Z, then AA, AB and so on.
+	 */
+	private static String rowLabel(int r) {
+		final int letters = 26;
+		StringBuilder label = new StringBuilder();
+		for (int n = r + 1; n > 0; n = (n - 1) / letters) {
+			label.insert(0, (char) ('A' + (n - 1) % letters));
+		}
+		return label.toString();
+	}
+
+	/**
+	 * Returns the number of positions in a row.
+	 *
+	 * @return the number of columns
+	 */
+	public int getColumns() {
+		return columns;
+	}
+
+	/**
+	 * Returns the number of rows.
+	 *
+	 * @return the number of rows
+	 */
+	public int getRows() {
+		return rows;
+	}
+
+	/**
+	 * Returns the width of a position, and of the row labels, in pixels.
+	 */
+	private int cellWidth() {
+		return Math.max(1, getWidth() / (columns + 1));
+	}
+
+	/**
+	 * Returns the height of a position, and of the column labels, in pixels.
+	 */
+	private int cellHeight() {
+		return Math.max(1, getHeight() / (rows + 1));
+	}
+
+	/**
+	 * Returns the position at pixel (x, y), or -1 if it is on a label or off
+	 * the grid.
+	 */
+	private int positionAt(int x, int y) {
+		int column = x / cellWidth() - 1;
+		int row = y / cellHeight() - 1;
+		if (x < 0 || y < 0 || column < 0 || column >= columns || row < 0
+				|| row >= rows) {
+			return -1;
+		}
+		return row * columns + column;
+	}
+
+	/**
+	 * Repaints position i only.
+	 */
+	private void repaintPosition(int i) {
+		int w = cellWidth(), h = cellHeight();
+		repaint((i % columns + 1) * w, (i / columns + 1) * h, w, h);
+	}
+
+	/**
+	 * Sets the icon of position i.
+	 *
+	 * @requires 0 <= i < columns * rows
+	 * @param i
+	 *            the position
+	 * @param icon
+	 *            the icon shown while the position is enabled
+	 */
+	public void setIcon(int i, Icon icon) {
+		if (icons[i] != icon) {
+			icons[i] = icon;
+			repaintPosition(i);
+		}
+	}
+
+	/**
+	 * Sets the disabled icon of position i.
+	 *
+	 * @requires 0 <= i < columns * rows
+	 * @param i
+	 *            the position
+	 * @param icon
+	 *            the icon shown while the position is disabled, or null to
+	 *            show its icon
+	 */
+	public void setDisabledIcon(int i, Icon icon) {
+		if (disabledIcons[i] != icon) {
+			disabledIcons[i] = icon;
+			repaintPosition(i);
+		}
+	}
+
+	/**
+	 * Enables or disables position i. A disabled position ignores clicks.
+	 *
+	 * @requires 0 <= i < columns * rows
+	 * @param i
+	 *            the position
+	 * @param enabled
+	 *            true to enable the position, false to disable it
+	 */
+	public void setEnabled(int i, boolean enabled) {
+		if (disabled.get(i) == enabled) {
+			disabled.set(i, !enabled);
+			repaintPosition(i);
+		}
+	}
+
+	/**
+	 * Reports whether position i is enabled.
+	 *
+	 * @requires 0 <= i < columns * rows
+	 * @param i
+	 *            the position
+	 * @return true if position i reports clicks
+	 */
+	public boolean isEnabled(int i) {
+		return !disabled.get(i);
+	}
+
+	/**
+	 * Sets the listener told about clicks on enabled positions. The board
+	 * has one listener for its lifetime, and its owner decides which clicks
+	 * to act on.
+	 *
+	 * @param listener
+	 *            told about every click on an enabled position, or null
+	 */
+	public void setGridListener(GridListener listener) {
+		this.listener = listener;
+	}
+
+	@Override
+	public Dimension getPreferredSize() {
+		if (isPreferredSizeSet()) {
+			return super.getPreferredSize();
+		}
+		int cell = BoardImage.SIZE + PADDING;
+		return new Dimension((columns + 1) * cell, (rows + 1) * cell);
+	}
+
+	@Override
+	protected void paintComponent(Graphics g) {
+		int w = cellWidth(), h = cellHeight();
+		Rectangle clip = g.getClipBounds();
+		if (clip == null) {
+			clip = new Rectangle(0, 0, getWidth(), getHeight());
+		}
+		g.setColor(getBackground());
+		g.fillRect(clip.x, clip.y, clip.width, clip.height);
+		// only the rows and columns the clip touches, labels included
+		int firstColumn = Math.max(0, clip.x / w - 1);
+		int lastColumn = Math.min(columns - 1, (clip.x + clip.width) / w - 1);
+		int firstRow = Math.max(0, clip.y / h - 1);
+		int lastRow = Math.min(rows - 1, (clip.y + clip.height) / h - 1);
+		FontMetrics metrics = g.getFontMetrics();
+		int baseline = (h - metrics.getHeight()) / 2 + metrics.getAscent();
+		g.setColor(getForeground());
+		if (clip.y < h) {
+			for (int c = firstColumn; c <= lastColumn; c++) {
+				String label = columnLabels[c];
+				g.drawString(label, (c + 1) * w
+						+ (w - metrics.stringWidth(label)) / 2, baseline);
+			}
+		}
+		if (clip.x < w) {
+			for (int r = firstRow; r <= lastRow; r++) {
+				String label = rowLabels[r];
+				g.drawString(label, (w - metrics.stringWidth(label)) / 2,
+						(r + 1) * h + baseline);
+			}
+		}
+		for (int r = firstRow; r <= lastRow; r++) {
+			for (int c = firstColumn; c <= lastColumn; c++) {
+				int i = r * columns + c;
+				int x = (c + 1) * w, y = (r + 1) * h;
+				Icon icon = icons[i];
+				if (disabled.get(i) && disabledIcons[i] != null) {
+					icon = disabledIcons[i];
+				}
+				if (icon != null) {
+					// keep icons larger than the position inside it
+					g.clipRect(x, y, w, h);
+					icon.paintIcon(this, g, x + (w - icon.getIconWidth()) / 2,
+							y + (h - icon.getIconHeight()) / 2);
+					g.setClip(clip.x, clip.y, clip.width, clip.height);
+				}
+				g.setColor(getForeground());
+				g.drawRect(x, y, w - 1, h - 1);
+			}
+		}
+		// ends the click-to-repaint time of the last grid click
+		GameMetrics.boardPainted();
+	}
+}
@@ -0,0 +1,161 @@
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.Image;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import javax.imageio.ImageIO;
+import javax.swing.Icon;
+
+/**
+ * An image of a grid position, bundled on the classpath next to the classes
+ * and shared by every view in the process. The images are decoded once, on a
+ * background thread started the first time this class is used, so no view
+ * waits for them: until an image is ready its icon paints a plain placeholder
+ * of the same size, and every component it was painted on is repainted once
+ * the image arrives.
+ */
+public final class BoardImage implements Icon {
+	// Fields
+	/**
+	 * The width and height of every image, in pixels.
+	 */
+	public static final int SIZE = 32;
+
+	/**
+	 * Water, for positions without a visible ship.
+	 */
+	public static final BoardImage WATER = new BoardImage("images/water.png",
+			new Color(30, 90, 165));
+
+	/**
+	 * Grayed water, for positions that have been fired at and missed.
+	 */
+	public static final BoardImage MISS = new BoardImage("images/miss.png",
+			new Color(150, 150, 150));
+
+	/**
+	 * A ship, for placed ships and hits.
+	 */
+	public static final BoardImage SHIP = new BoardImage("images/ship.png",
+			new Color(95, 100, 105));
+
+	static {
+		Thread loader = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				WATER.load();
+				MISS.load();
+				SHIP.load();
+			}
+		}, "board-image-loader");
+		loader.setDaemon(true);
+		loader.start();
+	}
+
+	/**
+	 * The classpath resource holding the image.
+	 */
+	private final String resource;
+
+	/**
+	 * The color painted until the image is ready.
+	 */
+	private final Color placeholder;
+
+	/**
+	 * The decoded image, or null until it is ready.
+	 */
+	private volatile Image image;
+
+	/**
+	 * Components the placeholder was painted on, to repaint once the image is
+	 * ready. Components are not kept alive by this set.
+	 */
+	private final Set<Component> waiting = Collections
+			.synchronizedSet(Collections
+					.newSetFromMap(new WeakHashMap<Component, Boolean>()));
+
+	// Constructor
+	/**
+	 * Constructor.
+	 *
+	 * @param resource
+	 *            the classpath resource holding the image
+	 * @param placeholder
+	 *            the color painted until the image is ready
+	 */
+	private BoardImage(String resource, Color placeholder) {
+		this.resource = resource;
+		this.placeholder = placeholder;
+	}
+
+	// Methods
+	/**
+	 * Decodes the image and repaints the components that are waiting for it.
+	 * If the resource is missing or can't be decoded, the placeholder is kept.
+	 */
+	private void load() {
+		URL url = BoardImage.class.getResource(resource);
+		if (url == null) {
+			System.out.println("Missing image " + resource + ".");
+			return;
+		}
+		try {
+			image = ImageIO.read(url);
+		} catch (IOException e) {
+			System.out.println("Could not read image " + resource + ".");
+			return;
+		}
+		Component[] components;
+		synchronized (waiting) {
+			components = waiting.toArray(new Component[waiting.size()]);
+			waiting.clear();
+		}
+		for (Component c : components) {
+			// repaint may be called from any thread
+			c.repaint();
+		}
+	}
+
+	/**
+	 * Reports whether the image has been decoded.
+	 *
+	 * @return true if the image is painted, false if the placeholder is
+	 */
+	public boolean isLoaded() {
+		return image != null;
+	}
+
+	@Override
+	public void paintIcon(Component c, Graphics g, int x, int y) {
+		Image ready = image;
+		if (ready != null) {
+			g.drawImage(ready, x, y, SIZE, SIZE, c);
+			return;
+		}
+		g.setColor(placeholder);
+		g.fillRect(x, y, SIZE, SIZE);
+		if (c != null) {
+			waiting.add(c);
+		}
+		// the image may have arrived after it was read above
+		if (image != null && c != null) {
+			c.repaint();
+		}
+	}
+
+	@Override
+	public int getIconWidth() {
+		return SIZE;
+	}
+
+	@Override
+	public int getIconHeight() {
+		return SIZE;
+	}
+}
@@ -0,0 +1,21 @@
+/**
+ * Receives the positions of a BattleshipGame's maps whose tokens change.
+ * Changes are coalesced: a call to addShip, fireShot, fireShots or fireSalvo
+ * delivers at most one event for each player's map, listing every position
+ * of that map the call changed, each once.
+ */
+public interface BoardListener {
+
+	/**
+	 * Called after a move has changed positions on a player's map.
+	 * 
+	 * @param player
+	 *            the player whose map changed
+	 * @param mapIndexes
+	 *            the positions that changed, in the order they changed. The
+	 *            array is reused for the next event, so copy it to keep it.
+	 * @param count
+	 *            the number of positions, from the start of mapIndexes
+	 */
+	void cellsChanged(CommandEnum player, int[] mapIndexes, int count);
+}
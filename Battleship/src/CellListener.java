@@ -0,0 +1,14 @@
+/**
+ * Receives the positions of a BattleShipModel whose tokens change.
+ */
+public interface CellListener {
+
+	/**
+	 * Called once for every position whose token has changed, as soon as it
+	 * changes: when a ship is placed on it, or when a ship on it is hit.
+	 * 
+	 * @param mapIndex
+	 *            the position that changed
+	 */
+	void cellChanged(int mapIndex);
+}
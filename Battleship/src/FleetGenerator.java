@@ -0,0 +1,125 @@
+import java.util.SplittableRandom;
+
+/**
+ * Places a complete fleet at random, with every legal layout of the fleet
+ * equally likely. Each ship is drawn uniformly from all of its placements in
+ * PlacementTable, and the whole fleet is drawn again whenever a ship overlaps
+ * one drawn before it, so only non-overlapping fleets are ever placed and
+ * addShip always succeeds.
+ *
+ * Drawing the ships independently and rejecting overlaps makes every layout
+ * exactly as likely as any other. Drawing each ship only from the placements
+ * that fit around the ships already placed would not: layouts whose large
+ * ships leave little room for the small ones would come up more often. About
+ * 39% of the independent draws have no overlap (LayoutEnumerator counts the
+ * 30,093,975,536 layouts), so a fleet takes under three draws on average.
+ *
+ * Sampling without any rejection would weight each placement by the number
+ * of layouts of the remaining ships around it. LayoutEnumerator can count
+ * those, but only by a search that takes seconds for the first ship, or tens
+ * of thousands of placement counts per fleet for the later ones if nothing
+ * is precomputed. Rejecting whole fleets costs a fraction of a microsecond
+ * per fleet instead, so it is what this generator does.
+ *
+ * A generator allocates nothing after construction, and the same seed always
+ * produces the same sequence of fleets.
+ */
+public final class FleetGenerator {
+	// Fields
+	/**
+	 * The ships of a complete fleet, largest first, so most overlaps are found
+	 * after drawing few ships.
+	 */
+	private static final ShipEnum[] FLEET = {ShipEnum.Aircraft_Carrier,
+			ShipEnum.Battleship, ShipEnum.Cruiser, ShipEnum.Submarine,
+			ShipEnum.Destroyer};
+
+	/**
+	 * Source of the random placements.
+	 */
+	private final SplittableRandom random;
+
+	/**
+	 * The placement number chosen for each ship of the last fleet.
+	 */
+	private final int[] chosen = new int[FLEET.length];
+
+	// Constructor
+	/**
+	 * Constructor.
+	 *
+	 * @param seed
+	 *            the seed for the random placements
+	 */
+	public FleetGenerator(long seed) {
+		random = new SplittableRandom(seed);
+	}
+
+	// Methods
+	/**
+	 * Places all five ships on an empty model.
+	 *
+	 * @param model
+	 *            the model the ships are placed on
+	 * @requires model has no ships on it
+	 * @ensures all five ships are on model
+	 */
+	public void placeFleet(BattleShipModel model) {
+		generate();
+		for (int i = 0; i < FLEET.length; i++) {
+			int size = PlacementTable.shipSize(FLEET[i]);
+			boolean error = model.addShip(
+					PlacementTable.placementOrigin(size, chosen[i]),
+					PlacementTable.placementDirection(size, chosen[i]),
+					FLEET[i]);
+			assert !error : "generated placements never overlap";
+		}
+	}
+
+	/**
+	 * Places all five ships for player.
+	 *
+	 * @param game
+	 *            the game whose map the ships are placed on
+	 * @param player
+	 *            the player whose ships are placed
+	 * @requires player has no ships on the map
+	 * @ensures all five ships of player are on the map
+	 */
+	public void placeFleet(BattleshipGame game, CommandEnum player) {
+		generate();
+		for (int i = 0; i < FLEET.length; i++) {
+			int size = PlacementTable.shipSize(FLEET[i]);
+			boolean error = game.addShip(
+					PlacementTable.placementOrigin(size, chosen[i]),
+					PlacementTable.placementDirection(size, chosen[i]),
+					FLEET[i], player);
+			assert !error : "generated placements never overlap";
+		}
+	}
+
+	/**
+	 * Chooses a placement for every ship of the fleet.
+	 */
+	private void generate() {
+		long low = 0, high = 0;
+		int i = 0;
+		while (i < FLEET.length) {
+			int size = PlacementTable.shipSize(FLEET[i]);
+			int k = random.nextInt(PlacementTable.count(size));
+			long pLow = PlacementTable.placementLow(size, k);
+			long pHigh = PlacementTable.placementHigh(size, k);
+			if ((pLow & low) != 0 || (pHigh & high) != 0) {
+				// start over, or layouts would not be equally likely
+				low = 0;
+				high = 0;
+				i = 0;
+			} else {
+				chosen[i] = k;
+				low |= pLow;
+				high |= pHigh;
+				i++;
+			}
+		}
+	}
+}
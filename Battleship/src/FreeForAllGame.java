@@ -0,0 +1,287 @@
+/**
+ * A free-for-all game between any number of players, each with their own
+ * map. Players are numbered from 0. Every player places a complete fleet,
+ * and then the players take turns firing at any opponent still in the game,
+ * starting with player 0. A player whose fleet is sunk is eliminated, and the
+ * last player left wins.
+ *
+ * The players still in the game are kept in a circular doubly linked list of
+ * player numbers, so passing the turn and eliminating a player take the same
+ * time however many players there are.
+ *
+ * @convention maps has one BattleShipModel for each player, and next and prev
+ *             link the players still in the game in turn order
+ * @correspondence there are players.length players who have maps, and the
+ *                 players not yet eliminated take turns in number order
+ */
+public final class FreeForAllGame {
+	// Fields
+	/**
+	 * The number of positions a complete fleet occupies.
+	 */
+	private static final int FLEET_SIZE = 17;
+
+	/**
+	 * Each player's map, by player number.
+	 */
+	private final BattleShipModel[] maps;
+
+	/**
+	 * The positions fired at on each player's map, by player number.
+	 */
+	private final PositionSet[] shots;
+
+	/**
+	 * The number of positions each player has covered with ships.
+	 */
+	private final int[] blocksOccupied;
+
+	/**
+	 * The player after each player still in the game.
+	 */
+	private final int[] next;
+
+	/**
+	 * The player before each player still in the game.
+	 */
+	private final int[] prev;
+
+	/**
+	 * Whether each player has been eliminated.
+	 */
+	private final boolean[] eliminated;
+
+	/**
+	 * The number of players still in the game.
+	 */
+	private int playersLeft;
+
+	/**
+	 * The number of players whose fleet is complete.
+	 */
+	private int fleetsPlaced;
+
+	/**
+	 * The player whose turn it is.
+	 */
+	private int playerTurn;
+
+	// Constructor
+	/**
+	 * Constructor for players on 10 x 10 maps.
+	 * 
+	 * @param players
+	 *            the number of players
+	 * @requires players >= 2
+	 */
+	public FreeForAllGame(int players) {
+		this(players, SolidBattleShipModel.DEFAULT_WIDTH,
+				SolidBattleShipModel.DEFAULT_HEIGHT);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param players
+	 *            the number of players
+	 * @param width
+	 *            the number of columns of each player's map
+	 * @param height
+	 *            the number of rows of each player's map
+	 * @requires players >= 2 and width > 0 and height > 0
+	 * @initially every map is empty and it is player 0's turn to place ships
+	 */
+	public FreeForAllGame(int players, int width, int height) {
+		if (players < 2) {
+			throw new IllegalArgumentException("a game needs two players");
+		}
+		maps = new BattleShipModel[players];
+		shots = new PositionSet[players];
+		blocksOccupied = new int[players];
+		next = new int[players];
+		prev = new int[players];
+		eliminated = new boolean[players];
+		for (int p = 0; p < players; p++) {
+			maps[p] = new SolidBattleShipModel(width, height);
+			shots[p] = new PositionSet();
+			next[p] = (p + 1) % players;
+			prev[p] = (p + players - 1) % players;
+		}
+		playersLeft = players;
+	}
+
+	// Methods
+	/**
+	 * Adds a ship to a player's map. Once a player's fleet is complete, the
+	 * next player places theirs, and once every fleet is complete the game
+	 * starts with player 0. Ships can only be added by the player whose turn
+	 * it is to place them, and not once the game has started.
+	 * 
+	 * @param mapIndex
+	 *            The position the ship starts at
+	 * @param placeDirection
+	 *            The direction the ship extends in from mapIndex
+	 * @param shipType
+	 *            The ship to place
+	 * @param player
+	 *            The player whose map the ship is placed on
+	 * @return true if there was an error placing the ship
+	 */
+	public boolean addShip(int mapIndex, CommandEnum placeDirection,
+			ShipEnum shipType, int player) {
+		// a complete fleet has passed the turn on, so this rejects it too
+		if (hasGameStarted() || player != playerTurn) {
+			return true;
+		}
+		boolean error = maps[player].addShip(mapIndex, placeDirection,
+				shipType);
+		if (!error) {
+			blocksOccupied[player] += PlacementTable.shipSize(shipType);
+			if (blocksOccupied[player] == FLEET_SIZE) {
+				fleetsPlaced++;
+				// the next player places their fleet, or player 0 starts
+				playerTurn = fleetsPlaced % maps.length;
+			}
+		}
+		return error;
+	}
+
+	/**
+	 * Fires the current player's shot at target, then passes the turn to the
+	 * next player still in the game. If the shot sinks target's last ship,
+	 * target is eliminated.
+	 * 
+	 * @param mapIndex
+	 *            The position fired at
+	 * @param target
+	 *            The player fired at
+	 * @requires no player has won
+	 * @return the token that was at mapIndex: a type of ship, or empty
+	 * @throws IllegalStateException
+	 *             if the game hasn't started
+	 * @throws IllegalArgumentException
+	 *             if target is the current player or has been eliminated, or
+	 *             mapIndex has already been fired at on target's map
+	 */
+	public ShipEnum fireShot(int mapIndex, int target) {
+		if (!hasGameStarted()) {
+			throw new IllegalStateException("the game hasn't started");
+		}
+		if (target == playerTurn || eliminated[target]) {
+			throw new IllegalArgumentException("player " + target
+					+ " can't be fired at");
+		}
+		if (shots[target].contains(mapIndex)) {
+			throw new IllegalArgumentException("position " + mapIndex
+					+ " of player " + target + " has already been fired at");
+		}
+		ShipEnum hit = maps[target].fireShot(mapIndex);
+		shots[target].add(mapIndex);
+		if (hit != ShipEnum.empty && maps[target].loseCheck()) {
+			// unlink target from the turn order
+			eliminated[target] = true;
+			next[prev[target]] = next[target];
+			prev[next[target]] = prev[target];
+			playersLeft--;
+		}
+		playerTurn = next[playerTurn];
+		return hit;
+	}
+
+	/**
+	 * Returns the player whose turn it is to place ships or to fire.
+	 * 
+	 * @return the current player
+	 */
+	public int getPlayerTurn() {
+		return playerTurn;
+	}
+
+	/**
+	 * Returns the player whose turn follows player's, skipping eliminated
+	 * players.
+	 * 
+	 * @param player
+	 *            a player still in the game
+	 * @return the next player still in the game
+	 */
+	public int getNextPlayer(int player) {
+		return next[player];
+	}
+
+	/**
+	 * Checks if a ship of a player has sunk.
+	 * 
+	 * @param ship
+	 *            The ship to check
+	 * @param player
+	 *            The player whose map is checked
+	 * @return true if the ship has sunk
+	 */
+	public boolean isShipSunk(ShipEnum ship, int player) {
+		return maps[player].isShipSunk(ship);
+	}
+
+	/**
+	 * Returns the token at a position of a player's map.
+	 * 
+	 * @param gridIndex
+	 *            The position on the map
+	 * @param player
+	 *            The player whose map is read
+	 * @return a ShipEnum token that is either a type of ship, hit, or empty
+	 */
+	public ShipEnum getGridToken(int gridIndex, int player) {
+		return maps[player].getGridToken(gridIndex);
+	}
+
+	/**
+	 * Checks if a player has been eliminated.
+	 * 
+	 * @param player
+	 *            The player to check
+	 * @return true if all of player's ships have sunk
+	 */
+	public boolean hasPlayerLost(int player) {
+		return eliminated[player];
+	}
+
+	/**
+	 * Returns whether every player has placed a complete fleet.
+	 * 
+	 * @return true if the game has started
+	 */
+	public boolean hasGameStarted() {
+		return fleetsPlaced == maps.length;
+	}
+
+	/**
+	 * Returns the number of players in the game.
+	 * 
+	 * @return the number of players, including eliminated ones
+	 */
+	public int getPlayers() {
+		return maps.length;
+	}
+
+	/**
+	 * Returns the number of players not yet eliminated.
+	 * 
+	 * @return the number of players left
+	 */
+	public int getPlayersLeft() {
+		return playersLeft;
+	}
+
+	/**
+	 * Returns the winner, if there is one.
+	 * 
+	 * @return the last player left, or -1 if the game isn't over
+	 */
+	public int getWinner() {
+		if (playersLeft == 1) {
+			return playerTurn;
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,320 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An append-only journal of game moves, kept in memory-mapped files. Every
+ * entry is 16 little-endian bytes:
+ *
+ * <pre>
+ * bytes 0-7    System.currentTimeMillis when the move was made
+ * bytes 8-11   game ID
+ * bytes 12-15  the move, packed by GameMove
+ * </pre>
+ *
+ * Game IDs are only unique within one run of a server, and every journal
+ * object is a run with its own run ID, so a game is identified by its run ID
+ * and game ID. Each segment starts with a 16-byte header holding the run ID
+ * in bytes 0-7, followed by zeros, and every entry in the segment belongs to
+ * that run.
+ *
+ * Each segment file covers one time window and is named
+ * journal-[window start]-[sequence].log, so the names sort in the order the
+ * segments were written. A segment is mapped at its full size when it is
+ * opened, and a new one is started when the window ends or the segment is
+ * full. Entries never have a zero time, so the first zero entry marks the end
+ * of a segment.
+ *
+ * Appending writes straight into the mapped file and allocates nothing;
+ * opening a new segment is the only slow path. Entries reach the disk when
+ * the operating system writes the pages back, or at once with force().
+ */
+public final class GameJournal {
+	// Fields
+	/**
+	 * The size of an entry in bytes.
+	 */
+	public static final int ENTRY = 16;
+
+	/**
+	 * Offset of the game ID within an entry.
+	 */
+	private static final int GAME_OFFSET = 8;
+
+	/**
+	 * Offset of the move within an entry.
+	 */
+	private static final int MOVE_OFFSET = 12;
+
+	/**
+	 * Default length of a time window: one hour.
+	 */
+	public static final long DEFAULT_WINDOW_MILLIS = 60L * 60 * 1000;
+
+	/**
+	 * Default number of entries per segment: 16 MB of entries.
+	 */
+	public static final int DEFAULT_ENTRIES = 1 << 20;
+
+	/**
+	 * The last run ID handed out in this process.
+	 */
+	private static final AtomicLong LAST_RUN = new AtomicLong();
+
+	/**
+	 * The directory segments are written to.
+	 */
+	private final Path directory;
+
+	/**
+	 * The length of a time window in milliseconds.
+	 */
+	private final long windowMillis;
+
+	/**
+	 * The size of a segment in bytes.
+	 */
+	private final int segmentBytes;
+
+	/**
+	 * The ID of this run, written in the header of every segment.
+	 */
+	private final long run;
+
+	/**
+	 * The segment being appended to, or null before the first append.
+	 */
+	private MappedByteBuffer segment;
+
+	/**
+	 * Where the next entry goes in segment.
+	 */
+	private int position;
+
+	/**
+	 * The start of the window segment belongs to.
+	 */
+	private long windowStart;
+
+	/**
+	 * The time after which a new window begins.
+	 */
+	private long windowEnd;
+
+	/**
+	 * The number of segments started in the current window.
+	 */
+	private int sequence;
+
+	// Constructor
+	/**
+	 * Constructor for a journal with default window and segment sizes.
+	 * 
+	 * @param directory
+	 *            the directory segments are written to
+	 */
+	public GameJournal(Path directory) {
+		this(directory, DEFAULT_WINDOW_MILLIS, DEFAULT_ENTRIES);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param directory
+	 *            the directory segments are written to
+	 * @param windowMillis
+	 *            the length of the time window covered by a segment
+	 * @param entries
+	 *            the number of entries a segment holds, besides its header
+	 * @requires windowMillis > 0 and
+	 *           0 < entries < Integer.MAX_VALUE / ENTRY
+	 */
+	public GameJournal(Path directory, long windowMillis, int entries) {
+		this.directory = directory;
+		this.windowMillis = windowMillis;
+		this.segmentBytes = (entries + 1) * ENTRY;
+		this.run = newRun();
+	}
+
+	// Methods
+	/**
+	 * Returns a run ID: the time in milliseconds, made later than every run
+	 * ID handed out before in this process.
+	 */
+	private static long newRun() {
+		long now = System.currentTimeMillis();
+		long last, next;
+		do {
+			last = LAST_RUN.get();
+			next = Math.max(now, last + 1);
+		} while (!LAST_RUN.compareAndSet(last, next));
+		return next;
+	}
+
+	/**
+	 * Returns the ID of this run, which together with a game ID identifies
+	 * the game in the journal's directory.
+	 * 
+	 * @return the run ID written in every segment of this journal
+	 */
+	public long getRun() {
+		return run;
+	}
+
+	/**
+	 * Appends a move to the journal.
+	 * 
+	 * @param gameId
+	 *            the game the move was made in
+	 * @param move
+	 *            the move, packed by GameMove
+	 * @throws IOException
+	 *             if a new segment can't be opened
+	 */
+	public synchronized void append(int gameId, int move) throws IOException {
+		long now = System.currentTimeMillis();
+		if (segment == null || now >= windowEnd
+				|| position == segmentBytes) {
+			roll(now);
+		}
+		segment.putLong(position, now);
+		segment.putInt(position + GAME_OFFSET, gameId);
+		segment.putInt(position + MOVE_OFFSET, move);
+		position += ENTRY;
+	}
+
+	/**
+	 * Forces the entries appended so far onto the disk.
+	 */
+	public synchronized void force() {
+		if (segment != null) {
+			segment.force();
+		}
+	}
+
+	/**
+	 * Maps a new segment for the window holding now.
+	 */
+	private void roll(long now) throws IOException {
+		force();
+		long start = now - now % windowMillis;
+		if (start != windowStart) {
+			windowStart = start;
+			windowEnd = start + windowMillis;
+			sequence = 0;
+		}
+		Files.createDirectories(directory);
+		Path file;
+		// never write over a segment left by an earlier run
+		do {
+			file = directory.resolve("journal-" + windowStart + "-"
+					+ sequence++ + ".log");
+		} while (Files.exists(file));
+		RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw");
+		try {
+			segment = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0,
+					segmentBytes);
+			segment.order(ByteOrder.LITTLE_ENDIAN);
+		} finally {
+			// the mapping stays valid after the file is closed
+			raf.close();
+		}
+		segment.putLong(0, run);
+		position = ENTRY;
+	}
+
+	/**
+	 * Returns the segment files in directory, oldest first.
+	 * 
+	 * @param directory
+	 *            the directory of a journal
+	 * @return the segments in the order they were written
+	 * @throws IOException
+	 *             if the directory can't be listed
+	 */
+	public static List<Path> segments(Path directory) throws IOException {
+		List<Path> files = new ArrayList<Path>();
+		DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+				"journal-*.log");
+		try {
+			for (Path file : stream) {
+				files.add(file);
+			}
+		} finally {
+			stream.close();
+		}
+		Collections.sort(files, new Comparator<Path>() {
+			@Override
+			public int compare(Path a, Path b) {
+				long[] x = parse(a), y = parse(b);
+				if (x[0] != y[0]) {
+					return Long.compare(x[0], y[0]);
+				}
+				return Long.compare(x[1], y[1]);
+			}
+		});
+		return files;
+	}
+
+	/**
+	 * Returns the window start and sequence number in a segment's name.
+	 */
+	private static long[] parse(Path file) {
+		String name = file.getFileName().toString();
+		int dash = name.lastIndexOf('-');
+		long start = Long.parseLong(name.substring("journal-".length(), dash));
+		long sequence = Long.parseLong(name.substring(dash + 1,
+				name.length() - ".log".length()));
+		return new long[] {start, sequence};
+	}
+
+	/**
+	 * Reads every entry of a segment.
+	 * 
+	 * @param file
+	 *            a segment file
+	 * @param visitor
+	 *            receives the entries in the order they were appended, with
+	 *            the run ID in the segment's header
+	 * @return the number of entries read
+	 * @throws IOException
+	 *             if the segment can't be read
+	 */
+	public static int read(Path file, JournalVisitor visitor)
+			throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r");
+		MappedByteBuffer buffer;
+		try {
+			buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0,
+					raf.length());
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+		} finally {
+			raf.close();
+		}
+		int entries = 0;
+		if (buffer.limit() < ENTRY) {
+			return entries;
+		}
+		long run = buffer.getLong(0);
+		for (int at = ENTRY; at + ENTRY <= buffer.limit(); at += ENTRY) {
+			long millis = buffer.getLong(at);
+			if (millis == 0) {
+				break;
+			}
+			visitor.entry(millis, run, buffer.getInt(at + GAME_OFFSET),
+					buffer.getInt(at + MOVE_OFFSET));
+			entries++;
+		}
+		return entries;
+	}
+}
@@ -0,0 +1,243 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Latency histograms for the game operations and the click-to-repaint path
+ * of the user interface, shared by every game in the process. Every game
+ * operation is counted, but only one in -Dbattleship.metrics.sample, 64
+ * unless given, is timed: a pair of System.nanoTime calls can cost more than
+ * the operation itself. Run with -Dbattleship.metrics=false to turn counting
+ * and timing off altogether.
+ *
+ * Nothing is published until install is called, which registers the
+ * histograms with the platform MBean server as battleship:type=GameMetrics
+ * and writes them to standard output every
+ * -Dbattleship.metrics.period seconds, 60 unless given, 0 for never.
+ */
+public final class GameMetrics implements GameMetricsMXBean {
+	// Fields
+	/**
+	 * Whether operations are counted and timed.
+	 */
+	public static final boolean ENABLED = !"false".equals(System
+			.getProperty("battleship.metrics"));
+
+	/**
+	 * Default number of game operations per timed one.
+	 */
+	private static final int DEFAULT_SAMPLE = 64;
+
+	/**
+	 * One game operation in this many is timed.
+	 */
+	private static final int SAMPLE_EVERY = Math.max(1, Integer.getInteger(
+			"battleship.metrics.sample", DEFAULT_SAMPLE));
+
+	/**
+	 * Latencies of SolidBattleshipGame.addShip.
+	 */
+	public static final LatencyHistogram ADD_SHIP = new LatencyHistogram(
+			"addShip");
+
+	/**
+	 * Latencies of SolidBattleshipGame.fireShot.
+	 */
+	public static final LatencyHistogram FIRE_SHOT = new LatencyHistogram(
+			"fireShot");
+
+	/**
+	 * Latencies of the batches fired by SolidBattleshipGame.fireShots and
+	 * fireSalvo, not counting rejected batches.
+	 */
+	public static final LatencyHistogram FIRE_SHOTS = new LatencyHistogram(
+			"fireShots");
+
+	/**
+	 * Latencies of SolidBattleshipGame.hasPlayerLost.
+	 */
+	public static final LatencyHistogram HAS_PLAYER_LOST =
+			new LatencyHistogram("hasPlayerLost");
+
+	/**
+	 * Times from a grid click to the first board painted after it.
+	 */
+	public static final LatencyHistogram CLICK_TO_REPAINT =
+			new LatencyHistogram("clickToRepaint");
+
+	/**
+	 * Every histogram, in the order they are written.
+	 */
+	private static final LatencyHistogram[] ALL = {ADD_SHIP, FIRE_SHOT,
+			FIRE_SHOTS, HAS_PLAYER_LOST, CLICK_TO_REPAINT};
+
+	/**
+	 * Default seconds between writing the histograms.
+	 */
+	private static final long DEFAULT_PERIOD = 60;
+
+	/**
+	 * System.nanoTime of the last grid click not yet painted, or 0. Only used
+	 * on the event-dispatch thread.
+	 */
+	private static long clickStart;
+
+	/**
+	 * Whether install has run.
+	 */
+	private static boolean installed;
+
+	// Constructor
+	/**
+	 * Private constructor; the only instance is the registered MBean.
+	 */
+	private GameMetrics() {
+	}
+
+	// Methods
+	/**
+	 * Counts a run of an operation and decides whether to time it.
+	 *
+	 * @param histogram
+	 *            the histogram of the operation
+	 * @return the time to pass to stop when the operation ends, or 0 if this
+	 *         run isn't timed
+	 */
+	public static long start(LatencyHistogram histogram) {
+		if (!ENABLED) {
+			return 0;
+		}
+		histogram.called();
+		if (SAMPLE_EVERY > 1
+				&& ThreadLocalRandom.current().nextInt(SAMPLE_EVERY) != 0) {
+			return 0;
+		}
+		return System.nanoTime();
+	}
+
+	/**
+	 * Records the latency of a run of an operation, if it was timed.
+	 *
+	 * @param histogram
+	 *            the histogram of the operation
+	 * @param start
+	 *            what start returned when the operation began
+	 */
+	public static void stop(LatencyHistogram histogram, long start) {
+		if (start != 0) {
+			histogram.record(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Notes that a grid click is being handled. Called on the event-dispatch
+	 * thread.
+	 */
+	public static void clicked() {
+		if (ENABLED) {
+			clickStart = System.nanoTime();
+		}
+	}
+
+	/**
+	 * Notes that a board has been painted, which ends the click-to-repaint
+	 * time of the last click. Called on the event-dispatch thread.
+	 */
+	public static void boardPainted() {
+		if (ENABLED && clickStart != 0) {
+			// clicks are rare, so every one is timed
+			CLICK_TO_REPAINT.called();
+			CLICK_TO_REPAINT.record(System.nanoTime() - clickStart);
+			clickStart = 0;
+		}
+	}
+
+	/**
+	 * Returns every histogram, one per line.
+	 *
+	 * @return the current counts and latencies
+	 */
+	public static String report() {
+		StringBuilder text = new StringBuilder();
+		for (LatencyHistogram histogram : ALL) {
+			text.append(histogram).append('\n');
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Registers the MBean and starts writing the histograms periodically, the
+	 * first time it is called. Does nothing if metrics are turned off.
+	 */
+	public static synchronized void install() {
+		if (!ENABLED || installed) {
+			return;
+		}
+		installed = true;
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(
+					new GameMetrics(),
+					new ObjectName("battleship:type=GameMetrics"));
+		} catch (JMException e) {
+			System.out.println("Could not register metrics: " + e);
+		}
+		long period = Long.getLong("battleship.metrics.period",
+				DEFAULT_PERIOD);
+		if (period <= 0) {
+			return;
+		}
+		ScheduledExecutorService log = Executors
+				.newSingleThreadScheduledExecutor(new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread thread = new Thread(r, "battleship-metrics");
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		log.scheduleAtFixedRate(new Runnable() {
+			@Override
+			public void run() {
+				System.out.print(report());
+			}
+		}, period, period, TimeUnit.SECONDS);
+	}
+
+	@Override
+	public LatencyHistogram getAddShip() {
+		return ADD_SHIP;
+	}
+
+	@Override
+	public LatencyHistogram getFireShot() {
+		return FIRE_SHOT;
+	}
+
+	@Override
+	public LatencyHistogram getFireShots() {
+		return FIRE_SHOTS;
+	}
+
+	@Override
+	public LatencyHistogram getHasPlayerLost() {
+		return HAS_PLAYER_LOST;
+	}
+
+	@Override
+	public LatencyHistogram getClickToRepaint() {
+		return CLICK_TO_REPAINT;
+	}
+
+	@Override
+	public void reset() {
+		for (LatencyHistogram histogram : ALL) {
+			histogram.reset();
+		}
+	}
+}
@@ -0,0 +1,50 @@
+/**
+ * The management interface of GameMetrics, registered with the platform
+ * MBean server as battleship:type=GameMetrics. Every histogram shows up as
+ * a composite attribute with its count, number of timed runs, mean, p50,
+ * p99 and max.
+ */
+public interface GameMetricsMXBean {
+
+	/**
+	 * Returns the latencies of SolidBattleshipGame.addShip.
+	 * 
+	 * @return the addShip histogram
+	 */
+	LatencyHistogram getAddShip();
+
+	/**
+	 * Returns the latencies of SolidBattleshipGame.fireShot.
+	 * 
+	 * @return the fireShot histogram
+	 */
+	LatencyHistogram getFireShot();
+
+	/**
+	 * Returns the latencies of the batches fired by
+	 * SolidBattleshipGame.fireShots and fireSalvo.
+	 * 
+	 * @return the fireShots histogram
+	 */
+	LatencyHistogram getFireShots();
+
+	/**
+	 * Returns the latencies of SolidBattleshipGame.hasPlayerLost.
+	 * 
+	 * @return the hasPlayerLost histogram
+	 */
+	LatencyHistogram getHasPlayerLost();
+
+	/**
+	 * Returns the times from a grid click in BattleshipController to the
+	 * first board painted after it.
+	 * 
+	 * @return the click-to-repaint histogram
+	 */
+	LatencyHistogram getClickToRepaint();
+
+	/**
+	 * Forgets everything recorded so far.
+	 */
+	void reset();
+}
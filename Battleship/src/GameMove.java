@@ -0,0 +1,204 @@
+/**
+ * Packs a single addShip or fireShot call into an int, so moves can be stored
+ * in fixed-width journal entries and primitive arrays.
+ *
+ * <pre>
+ * bits 0-21   map index
+ * bits 22-24  ship ordinal (addShip only)
+ * bits 25-26  direction ordinal (addShip only)
+ * bits 27-30  player: 0 for player1, 1 for player2
+ * bit 31      0 for addShip, 1 for fireShot
+ * </pre>
+ *
+ * For fireShot the player is the one fired at, as in BattleshipGame.
+ */
+public final class GameMove {
+	// Fields
+	/**
+	 * The number of bits holding the map index.
+	 */
+	private static final int INDEX_BITS = 22;
+
+	/**
+	 * The position of the ship ordinal.
+	 */
+	private static final int SHIP_SHIFT = INDEX_BITS;
+
+	/**
+	 * The position of the direction ordinal.
+	 */
+	private static final int DIRECTION_SHIFT = SHIP_SHIFT + 3;
+
+	/**
+	 * The position of the player.
+	 */
+	private static final int PLAYER_SHIFT = DIRECTION_SHIFT + 2;
+
+	/**
+	 * The bit set for fireShot.
+	 */
+	private static final int FIRE = 1 << 31;
+
+	/**
+	 * The largest map index that can be packed.
+	 */
+	public static final int MAX_INDEX = (1 << INDEX_BITS) - 1;
+
+	/**
+	 * Masks the ship ordinal after shifting.
+	 */
+	private static final int SHIP_MASK = 0x7;
+
+	/**
+	 * Masks the direction ordinal after shifting.
+	 */
+	private static final int DIRECTION_MASK = 0x3;
+
+	/**
+	 * Masks the player after shifting.
+	 */
+	private static final int PLAYER_MASK = 0xF;
+
+	/**
+	 * ShipEnum values, cached because values() returns a new array.
+	 */
+	private static final ShipEnum[] SHIPS = ShipEnum.values();
+
+	/**
+	 * CommandEnum values, cached because values() returns a new array.
+	 */
+	private static final CommandEnum[] COMMANDS = CommandEnum.values();
+
+	// Constructor
+	/**
+	 * Private constructor for this utility class.
+	 */
+	private GameMove() {
+	}
+
+	// Methods
+	/**
+	 * Packs an addShip call.
+	 * 
+	 * @requires 0 <= mapIndex <= MAX_INDEX and placeDirection is up, down,
+	 *           left or right
+	 * @param mapIndex
+	 *            the map index the ship is added at
+	 * @param placeDirection
+	 *            the direction the ship is placed in
+	 * @param shipType
+	 *            the ship that is placed
+	 * @param player
+	 *            the player whose map the ship is placed on
+	 * @return the packed move
+	 */
+	public static int addShip(int mapIndex, CommandEnum placeDirection,
+			ShipEnum shipType, CommandEnum player) {
+		return mapIndex | shipType.ordinal() << SHIP_SHIFT
+				| placeDirection.ordinal() << DIRECTION_SHIFT
+				| playerNumber(player) << PLAYER_SHIFT;
+	}
+
+	/**
+	 * Packs a fireShot call.
+	 * 
+	 * @requires 0 <= mapIndex <= MAX_INDEX
+	 * @param mapIndex
+	 *            the map index fired at
+	 * @param player
+	 *            the player fired at
+	 * @return the packed move
+	 */
+	public static int fireShot(int mapIndex, CommandEnum player) {
+		return FIRE | mapIndex | playerNumber(player) << PLAYER_SHIFT;
+	}
+
+	/**
+	 * Returns true if move is a fireShot call.
+	 * 
+	 * @param move
+	 *            a packed move
+	 * @return true for fireShot, false for addShip
+	 */
+	public static boolean isFire(int move) {
+		return (move & FIRE) != 0;
+	}
+
+	/**
+	 * Returns the map index of a move.
+	 * 
+	 * @param move
+	 *            a packed move
+	 * @return the map index
+	 */
+	public static int mapIndex(int move) {
+		return move & MAX_INDEX;
+	}
+
+	/**
+	 * Returns the ship of an addShip move.
+	 * 
+	 * @param move
+	 *            a packed addShip move
+	 * @return the ship that was placed
+	 */
+	public static ShipEnum ship(int move) {
+		return SHIPS[move >>> SHIP_SHIFT & SHIP_MASK];
+	}
+
+	/**
+	 * Returns the direction of an addShip move.
+	 * 
+	 * @param move
+	 *            a packed addShip move
+	 * @return the direction the ship was placed in
+	 */
+	public static CommandEnum direction(int move) {
+		return COMMANDS[move >>> DIRECTION_SHIFT & DIRECTION_MASK];
+	}
+
+	/**
+	 * Returns the player of a move.
+	 * 
+	 * @param move
+	 *            a packed move
+	 * @return the player whose map the move was made on
+	 */
+	public static CommandEnum player(int move) {
+		if ((move >>> PLAYER_SHIFT & PLAYER_MASK) == 1) {
+			return CommandEnum.player2;
+		}
+		return CommandEnum.player1;
+	}
+
+	/**
+	 * Applies a move to a game.
+	 * 
+	 * @param game
+	 *            the game the move is made in
+	 * @param move
+	 *            a packed move
+	 * @return for addShip, the ship if it couldn't be placed and null
+	 *         otherwise; for fireShot, the token fireShot returned
+	 */
+	public static ShipEnum apply(BattleshipGame game, int move) {
+		if (isFire(move)) {
+			return game.fireShot(mapIndex(move), player(move));
+		}
+		if (game.addShip(mapIndex(move), direction(move), ship(move),
+				player(move))) {
+			return ship(move);
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the player number of player.
+	 */
+	private static int playerNumber(CommandEnum player) {
+		if (player == CommandEnum.player2) {
+			return 1;
+		}
+		return 0;
+	}
+}
@@ -0,0 +1,211 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Rebuilds the state of a SolidBattleshipGame after any number of recorded
+ * moves. The moves are played through once when the replay is created, and a
+ * GameSnapshot is kept every interval moves, so seeking to move n restores
+ * the nearest checkpoint at or before n and applies fewer than interval moves
+ * from there. Seeking forward from the current position just applies the
+ * moves in between.
+ *
+ * Moves are packed by GameMove, as they are in a GameJournal. A replay keeps
+ * one game, which every seek updates, so seeking allocates nothing.
+ */
+public final class GameReplay {
+	// Fields
+	/**
+	 * Default number of moves between checkpoints.
+	 */
+	public static final int DEFAULT_INTERVAL = 16;
+
+	/**
+	 * The recorded moves.
+	 */
+	private final int[] moves;
+
+	/**
+	 * The number of recorded moves.
+	 */
+	private final int length;
+
+	/**
+	 * The number of moves between checkpoints.
+	 */
+	private final int interval;
+
+	/**
+	 * Snapshots of the game after 0, interval, 2 * interval, ... moves.
+	 */
+	private final ByteBuffer checkpoints;
+
+	/**
+	 * The game being replayed.
+	 */
+	private final SolidBattleshipGame game = new SolidBattleshipGame();
+
+	/**
+	 * The number of moves applied to game.
+	 */
+	private int position;
+
+	// Constructor
+	/**
+	 * Constructor for a replay with a checkpoint every DEFAULT_INTERVAL
+	 * moves.
+	 * 
+	 * @param moves
+	 *            the recorded moves, packed by GameMove
+	 */
+	public GameReplay(int[] moves) {
+		this(moves, moves.length, DEFAULT_INTERVAL);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param moves
+	 *            the recorded moves, packed by GameMove, which must not
+	 *            change while the replay is used
+	 * @param length
+	 *            the number of recorded moves
+	 * @param interval
+	 *            the number of moves between checkpoints
+	 * @requires 0 <= length <= moves.length and interval > 0
+	 * @ensures the replay is positioned after the last move
+	 */
+	public GameReplay(int[] moves, int length, int interval) {
+		this.moves = moves;
+		this.length = length;
+		this.interval = interval;
+		checkpoints = ByteBuffer.allocate((length / interval + 1)
+				* GameSnapshot.SIZE);
+		for (int i = 0; i <= length; i++) {
+			if (i % interval == 0) {
+				GameSnapshot.save(game, checkpoints);
+			}
+			if (i < length) {
+				GameMove.apply(game, moves[i]);
+			}
+		}
+		position = length;
+	}
+
+	// Methods
+	/**
+	 * Returns the game after the first n recorded moves. The game belongs to
+	 * the replay, and changes at the next seek.
+	 * 
+	 * @param n
+	 *            the number of moves to replay
+	 * @requires 0 <= n <= getLength()
+	 * @return the game after n moves
+	 * @throws IndexOutOfBoundsException
+	 *             if n is out of range
+	 */
+	public SolidBattleshipGame seek(int n) {
+		if (n < 0 || n > length) {
+			throw new IndexOutOfBoundsException("move " + n + " of " + length);
+		}
+		// restore a checkpoint unless moving forward within the interval
+		if (n < position || n - position >= interval) {
+			int checkpoint = n / interval;
+			checkpoints.position(checkpoint * GameSnapshot.SIZE);
+			GameSnapshot.restore(checkpoints, game);
+			position = checkpoint * interval;
+		}
+		apply(moves, position, n, game);
+		position = n;
+		return game;
+	}
+
+	/**
+	 * Returns the number of recorded moves.
+	 * 
+	 * @return the number of moves
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Returns the number of moves applied to the game at the last seek.
+	 * 
+	 * @return the current position
+	 */
+	public int getPosition() {
+		return position;
+	}
+
+	/**
+	 * Returns a recorded move.
+	 * 
+	 * @param i
+	 *            the number of the move
+	 * @requires 0 <= i < getLength()
+	 * @return the move, packed by GameMove
+	 */
+	public int getMove(int i) {
+		return moves[i];
+	}
+
+	/**
+	 * Applies a range of recorded moves to a game, without checkpoints. This
+	 * is the quickest way to rebuild the final state of many games, reusing a
+	 * game restored from an empty snapshot for each.
+	 * 
+	 * @param moves
+	 *            the recorded moves, packed by GameMove
+	 * @param from
+	 *            the first move applied
+	 * @param to
+	 *            the move after the last one applied
+	 * @param game
+	 *            the game the moves are applied to
+	 */
+	public static void apply(int[] moves, int from, int to,
+			BattleshipGame game) {
+		for (int i = from; i < to; i++) {
+			GameMove.apply(game, moves[i]);
+		}
+	}
+
+	/**
+	 * Reads the moves of one game from a GameJournal directory. Every run of
+	 * a server numbers its games from 1, so the run is needed to tell games
+	 * with the same ID apart.
+	 * 
+	 * @param directory
+	 *            the directory of the journal
+	 * @param run
+	 *            the run ID of the journal the game was recorded by
+	 * @param gameId
+	 *            the game whose moves are read
+	 * @return the moves of the game, in the order they were made
+	 * @throws IOException
+	 *             if the journal can't be read
+	 */
+	public static int[] journaledMoves(Path directory, final long run,
+			final int gameId) throws IOException {
+		final int[][] found = {new int[DEFAULT_INTERVAL]};
+		final int[] count = new int[1];
+		JournalVisitor visitor = new JournalVisitor() {
+			@Override
+			public void entry(long millis, long entryRun, int id, int move) {
+				if (entryRun != run || id != gameId) {
+					return;
+				}
+				if (count[0] == found[0].length) {
+					found[0] = Arrays.copyOf(found[0], count[0] * 2);
+				}
+				found[0][count[0]++] = move;
+			}
+		};
+		for (Path segment : GameJournal.segments(directory)) {
+			GameJournal.read(segment, visitor);
+		}
+		return Arrays.copyOf(found[0], count[0]);
+	}
+}
@@ -0,0 +1,119 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Checks that games recorded in one GameJournal directory by two runs of a
+ * server replay separately, although both runs number their games from 1.
+ * Throws an AssertionError if a check fails.
+ *
+ * Run with: java GameReplayTester
+ */
+public final class GameReplayTester {
+	// Fields
+	/**
+	 * The players, in turn order.
+	 */
+	private static final CommandEnum[] PLAYERS = {CommandEnum.player1,
+			CommandEnum.player2};
+
+	/**
+	 * The number of positions on a map.
+	 */
+	private static final int CELLS = SolidBattleShipModel.DEFAULT_WIDTH
+			* SolidBattleShipModel.DEFAULT_HEIGHT;
+
+	// Constructor
+	/**
+	 * Private constructor for this utility class.
+	 */
+	private GameReplayTester() {
+	}
+
+	// Methods
+	/**
+	 * Throws an AssertionError with message unless condition holds.
+	 */
+	private static void check(boolean condition, String message) {
+		if (!condition) {
+			throw new AssertionError(message);
+		}
+	}
+
+	/**
+	 * Plays the first game of a new run into the journal directory: both
+	 * fleets from seed, then a number of shots, never twice at a position.
+	 *
+	 * @return the game as it was played, with its journal's run ID
+	 */
+	private static JournaledBattleshipGame playRun(Path directory, long seed,
+			int shots) {
+		GameSessionRegistry registry = new GameSessionRegistry(
+				new GameJournal(directory));
+		long id = registry.create();
+		check(id == 1, "every run numbers its games from 1");
+		JournaledBattleshipGame game = (JournaledBattleshipGame) registry
+				.get(id);
+		FleetGenerator fleets = new FleetGenerator(seed);
+		for (CommandEnum player : PLAYERS) {
+			fleets.placeFleet(game, player);
+		}
+		// needed constants
+		final int step = 37;
+		int[] position = new int[1];
+		byte[] outcome = new byte[1];
+		for (int i = 0; i < shots; i++) {
+			CommandEnum target = PLAYERS[0];
+			if (game.getPlayerTurn() == CommandEnum.player1) {
+				target = PLAYERS[1];
+			}
+			position[0] = (int) ((seed + i * step) % CELLS);
+			game.fireShots(position, 1, target, outcome);
+			check(ShotOutcome.isFired(outcome[0]), "every shot is fired");
+		}
+		return game;
+	}
+
+	/**
+	 * Checks that the journaled moves of a game replay to the game.
+	 */
+	private static void checkReplay(Path directory,
+			JournaledBattleshipGame played, int moves) throws IOException {
+		int[] journaled = GameReplay.journaledMoves(directory,
+				played.getRun(), played.getGameId());
+		check(journaled.length == moves, "run " + played.getRun() + " has "
+				+ journaled.length + " moves, not " + moves);
+		SolidBattleshipGame replayed = new GameReplay(journaled)
+				.seek(journaled.length);
+		check(replayed.getPlayerTurn() == played.getPlayerTurn(),
+				"the replay has the same turn");
+		for (CommandEnum player : PLAYERS) {
+			for (int i = 0; i < CELLS; i++) {
+				check(replayed.getGridToken(i, player) == played
+						.getGridToken(i, player), "the replay has the same "
+						+ "token at " + i + " on " + player + "'s map");
+			}
+		}
+	}
+
+	// Main method
+	/**
+	 * Runs the checks.
+	 *
+	 * @param args
+	 *            is empty
+	 * @throws IOException
+	 *             if the journal can't be written or read
+	 */
+	public static void main(String[] args) throws IOException {
+		// needed constants
+		final int fleetMoves = 10, firstShots = 30, secondShots = 45;
+		Path directory = Files.createTempDirectory("journal");
+		JournaledBattleshipGame first = playRun(directory, 1, firstShots);
+		JournaledBattleshipGame second = playRun(directory, 2, secondShots);
+		check(first.getRun() != second.getRun(), "runs have different IDs");
+		checkReplay(directory, first, fleetMoves + firstShots);
+		checkReplay(directory, second, fleetMoves + secondShots);
+		System.out.println("GameReplayTester: all checks passed");
+	}
+}
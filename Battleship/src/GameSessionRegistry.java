@@ -0,0 +1,99 @@
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Maps game IDs to the independent games hosted by one process. The registry
+ * is safe to use from many threads at once; the games themselves are not, so
+ * callers synchronize on a game while they use it.
+ *
+ * A registry given a GameJournal records the moves of every game it creates
+ * there, under the journal's run ID and the game's ID. IDs start at 1 in
+ * every registry, so the run ID is what tells apart games recorded in the
+ * same directory by different runs of a server.
+ */
+public final class GameSessionRegistry {
+	// Fields
+	/**
+	 * The games being played, by ID.
+	 */
+	private final ConcurrentMap<Long, BattleshipGame> games =
+			new ConcurrentHashMap<Long, BattleshipGame>();
+
+	/**
+	 * The ID of the next game created.
+	 */
+	private final AtomicLong nextId = new AtomicLong(1);
+
+	/**
+	 * The journal games record their moves in, or null.
+	 */
+	private final GameJournal journal;
+
+	// Constructor
+	/**
+	 * Constructor for a registry whose games are not journaled.
+	 */
+	public GameSessionRegistry() {
+		this(null);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param journal
+	 *            the journal games record their moves in, or null
+	 */
+	public GameSessionRegistry(GameJournal journal) {
+		this.journal = journal;
+	}
+
+	// Methods
+	/**
+	 * Starts a new game.
+	 * 
+	 * @return the ID of the new game
+	 */
+	public long create() {
+		long id = nextId.getAndIncrement();
+		if (journal == null) {
+			games.put(id, new SolidBattleshipGame());
+		} else {
+			// journal entries hold 32-bit IDs
+			games.put(id, new JournaledBattleshipGame(journal,
+					Math.toIntExact(id)));
+		}
+		return id;
+	}
+
+	/**
+	 * Returns the game with an ID.
+	 * 
+	 * @param id
+	 *            the ID of the game
+	 * @return the game, or null if there is no game with that ID
+	 */
+	public BattleshipGame get(long id) {
+		return games.get(id);
+	}
+
+	/**
+	 * Ends the game with an ID.
+	 * 
+	 * @param id
+	 *            the ID of the game
+	 * @return true if and only if there was a game with that ID
+	 */
+	public boolean remove(long id) {
+		return games.remove(id) != null;
+	}
+
+	/**
+	 * Returns the number of games being played.
+	 * 
+	 * @return the number of games in the registry
+	 */
+	public int size() {
+		return games.size();
+	}
+}
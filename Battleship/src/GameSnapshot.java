@@ -0,0 +1,135 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Saves the whole state of a SolidBattleshipGame in a few bytes and restores
+ * it; SIZE bytes for a game on 10 x 10 maps. A snapshot holds the turn,
+ * whether the game has started, the number of blocks placed by the player
+ * placing ships, and for each player every grid token and the number of
+ * positions left on each ship:
+ *
+ * <pre>
+ * byte 0      flags: 1 if it is player 2's turn, 2 if the game has started
+ * byte 1      blocksOccupied
+ * bytes 2-41  player 1's map
+ * bytes 42-81 player 2's map
+ * </pre>
+ *
+ * where a map is 100 tokens of three bits each, the ShipEnum ordinal or 7 for
+ * a position that was fired at and missed, followed by the hit counts of the
+ * five ships in three bits each. Larger maps take three bits for each of
+ * their positions, and a snapshot can only be restored into a game whose maps
+ * have the same dimensions. Only games on SolidBattleShipModel maps can be
+ * saved; a snapshot holds no salvo state, so salvo games, which are played on
+ * BitboardBattleShipModel maps, are rejected.
+ *
+ * Saving into and restoring from a ByteBuffer allocates nothing, so many games
+ * can be checkpointed into one large buffer.
+ */
+public final class GameSnapshot {
+	// Fields
+	/**
+	 * The size of a snapshot of a game on 10 x 10 maps in bytes.
+	 */
+	public static final int SIZE = new SolidBattleshipGame().savedBytes();
+
+	// Constructor
+	/**
+	 * Private constructor for this utility class.
+	 */
+	private GameSnapshot() {
+	}
+
+	// Methods
+	/**
+	 * Returns the size of a snapshot of game.
+	 * 
+	 * @param game
+	 *            a game
+	 * @return the number of bytes save writes for game
+	 * @throws IllegalArgumentException
+	 *             if game is a salvo game
+	 */
+	public static int size(SolidBattleshipGame game) {
+		checkNotSalvo(game);
+		return game.savedBytes();
+	}
+
+	/**
+	 * Returns a snapshot of game.
+	 * 
+	 * @param game
+	 *            the game saved
+	 * @return size(game) bytes holding the state of game
+	 * @throws IllegalArgumentException
+	 *             if game is a salvo game
+	 */
+	public static byte[] save(SolidBattleshipGame game) {
+		byte[] bytes = new byte[size(game)];
+		save(game, ByteBuffer.wrap(bytes));
+		return bytes;
+	}
+
+	/**
+	 * Writes a snapshot of game at the position of out.
+	 * 
+	 * @param game
+	 *            the game saved
+	 * @param out
+	 *            the buffer written to
+	 * @requires out.remaining() >= size(game)
+	 * @ensures the position of out moves forward by size(game)
+	 * @throws IllegalArgumentException
+	 *             if game is a salvo game
+	 */
+	public static void save(SolidBattleshipGame game, ByteBuffer out) {
+		checkNotSalvo(game);
+		game.save(out);
+	}
+
+	/**
+	 * Returns a new game on 10 x 10 maps in the state saved in a snapshot.
+	 * 
+	 * @param bytes
+	 *            a snapshot written by save
+	 * @return the restored game
+	 * @throws IllegalArgumentException
+	 *             if bytes is not a snapshot
+	 */
+	public static SolidBattleshipGame restore(byte[] bytes) {
+		if (bytes.length != SIZE) {
+			throw new IllegalArgumentException("a snapshot is " + SIZE
+					+ " bytes");
+		}
+		SolidBattleshipGame game = new SolidBattleshipGame();
+		restore(ByteBuffer.wrap(bytes), game);
+		return game;
+	}
+
+	/**
+	 * Replaces the state of game with the snapshot at the position of in.
+	 * 
+	 * @param in
+	 *            the buffer read from
+	 * @param game
+	 *            the game restored
+	 * @requires in.remaining() >= size(game) and the snapshot was saved from
+	 *           a game whose maps have the dimensions of game's
+	 * @ensures the position of in moves forward by size(game)
+	 * @throws IllegalArgumentException
+	 *             if game is a salvo game
+	 */
+	public static void restore(ByteBuffer in, SolidBattleshipGame game) {
+		checkNotSalvo(game);
+		game.restore(in);
+	}
+
+	/**
+	 * Throws an IllegalArgumentException if game is a salvo game.
+	 */
+	private static void checkNotSalvo(SolidBattleshipGame game) {
+		if (game.isSalvo()) {
+			throw new IllegalArgumentException(
+					"salvo games can't be snapshotted");
+		}
+	}
+}
@@ -0,0 +1,14 @@
+/**
+ * Receives the clicks on the positions of a BoardComponent.
+ */
+public interface GridListener {
+
+	/**
+	 * Called on the event-dispatch thread for every click on an enabled
+	 * position.
+	 *
+	 * @param i
+	 *            the position clicked
+	 */
+	void positionClicked(int i);
+}
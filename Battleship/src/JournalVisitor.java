@@ -0,0 +1,19 @@
+/**
+ * Receives the entries read back from a GameJournal segment.
+ */
+public interface JournalVisitor {
+
+	/**
+	 * Called once for every entry, in the order they were appended.
+	 * 
+	 * @param millis
+	 *            the time the move was made, from System.currentTimeMillis
+	 * @param run
+	 *            the run of the journal the move was recorded by
+	 * @param gameId
+	 *            the game the move was made in, unique within its run
+	 * @param move
+	 *            the move, packed by GameMove
+	 */
+	void entry(long millis, long run, int gameId, int move);
+}
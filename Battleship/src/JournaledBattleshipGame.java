@@ -0,0 +1,159 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * A BattleshipGame that records every ship placed and every shot fired in a
+ * GameJournal. Placements are recorded only when they succeed, so replaying
+ * the journal entries of a game in order rebuilds it. Journal entries don't
+ * record the salvo rule, so salvo games can't be journaled.
+ */
+public final class JournaledBattleshipGame implements BattleshipGame {
+	// Fields
+	/**
+	 * The game moves are made in.
+	 */
+	private final BattleshipGame game;
+
+	/**
+	 * The journal moves are recorded in.
+	 */
+	private final GameJournal journal;
+
+	/**
+	 * The ID the game's entries are recorded under.
+	 */
+	private final int gameId;
+
+	// Constructor
+	/**
+	 * Constructor for a journaled SolidBattleshipGame.
+	 * 
+	 * @param journal
+	 *            the journal moves are recorded in
+	 * @param gameId
+	 *            the ID the game's entries are recorded under
+	 */
+	public JournaledBattleshipGame(GameJournal journal, int gameId) {
+		this(new SolidBattleshipGame(), journal, gameId);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param game
+	 *            the game moves are made in
+	 * @param journal
+	 *            the journal moves are recorded in
+	 * @param gameId
+	 *            the ID the game's entries are recorded under
+	 * @throws IllegalArgumentException
+	 *             if game is a salvo game
+	 */
+	public JournaledBattleshipGame(BattleshipGame game, GameJournal journal,
+			int gameId) {
+		if (game instanceof SolidBattleshipGame
+				&& ((SolidBattleshipGame) game).isSalvo()) {
+			throw new IllegalArgumentException(
+					"salvo games can't be journaled");
+		}
+		this.game = game;
+		this.journal = journal;
+		this.gameId = gameId;
+	}
+
+	// Methods
+	@Override
+	public boolean addShip(int mapIndex, CommandEnum placeDirection,
+			ShipEnum shipType, CommandEnum player) {
+		boolean error = game.addShip(mapIndex, placeDirection, shipType,
+				player);
+		if (!error) {
+			record(GameMove.addShip(mapIndex, placeDirection, shipType,
+					player));
+		}
+		return error;
+	}
+
+	@Override
+	public ShipEnum fireShot(int mapIndex, CommandEnum player) {
+		ShipEnum hit = game.fireShot(mapIndex, player);
+		record(GameMove.fireShot(mapIndex, player));
+		return hit;
+	}
+
+	@Override
+	public int fireShots(int[] mapIndexes, int count, CommandEnum player,
+			byte[] outcomes) {
+		int fired = game.fireShots(mapIndexes, count, player, outcomes);
+		for (int i = 0; i < count; i++) {
+			if (ShotOutcome.isFired(outcomes[i])) {
+				record(GameMove.fireShot(mapIndexes[i], player));
+			}
+		}
+		return fired;
+	}
+
+	@Override
+	public CommandEnum getPlayerTurn() {
+		return game.getPlayerTurn();
+	}
+
+	@Override
+	public boolean isShipSunk(ShipEnum shipType, CommandEnum player) {
+		return game.isShipSunk(shipType, player);
+	}
+
+	@Override
+	public ShipEnum getGridToken(Integer mapIndex, CommandEnum player) {
+		return game.getGridToken(mapIndex, player);
+	}
+
+	@Override
+	public boolean hasPlayerLost(CommandEnum player) {
+		return game.hasPlayerLost(player);
+	}
+
+	@Override
+	public boolean hasGameStarted() {
+		return game.hasGameStarted();
+	}
+
+	@Override
+	public void addBoardListener(BoardListener listener) {
+		game.addBoardListener(listener);
+	}
+
+	@Override
+	public void removeBoardListener(BoardListener listener) {
+		game.removeBoardListener(listener);
+	}
+
+	/**
+	 * Returns the ID the game's entries are recorded under.
+	 * 
+	 * @return the game ID
+	 */
+	public int getGameId() {
+		return gameId;
+	}
+
+	/**
+	 * Returns the run ID of the journal the game's entries are recorded in.
+	 * 
+	 * @return the run ID, which with the game ID identifies the game
+	 */
+	public long getRun() {
+		return journal.getRun();
+	}
+
+	/**
+	 * Appends a move to the journal.
+	 */
+	private void record(int move) {
+		try {
+			journal.append(gameId, move);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
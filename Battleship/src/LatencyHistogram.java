@@ -0,0 +1,208 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how often an operation ran and how long it took. Every run is
+ * counted, but only the runs that were timed have a latency, so that an
+ * operation can be sampled. Latencies are counted in buckets by powers of two
+ * nanoseconds, so recording is a few increments and percentiles are accurate
+ * to within a factor of two. Any number of threads may record at once.
+ *
+ * @convention bucket 0 counts latencies of 0 ns, and bucket b > 0 counts
+ *             latencies from 2^(b-1) to 2^b - 1 ns
+ */
+public final class LatencyHistogram {
+	// Fields
+	/**
+	 * The number of buckets, one for every bit of a long.
+	 */
+	private static final int BUCKETS = 64;
+
+	/**
+	 * The name of the operation.
+	 */
+	private final String name;
+
+	/**
+	 * The number of latencies in each bucket.
+	 */
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+	/**
+	 * The number of runs of the operation.
+	 */
+	private final LongAdder calls = new LongAdder();
+
+	/**
+	 * The number of latencies recorded.
+	 */
+	private final LongAdder count = new LongAdder();
+
+	/**
+	 * The sum of the latencies recorded, in nanoseconds.
+	 */
+	private final LongAdder total = new LongAdder();
+
+	/**
+	 * The longest latency recorded, in nanoseconds.
+	 */
+	private final AtomicLong max = new AtomicLong();
+
+	// Constructor
+	/**
+	 * Constructor.
+	 *
+	 * @param name
+	 *            the name of the operation
+	 */
+	public LatencyHistogram(String name) {
+		this.name = name;
+	}
+
+	// Methods
+	/**
+	 * Counts one run of the operation, timed or not.
+	 */
+	public void called() {
+		calls.increment();
+	}
+
+	/**
+	 * Records the latency of one timed run of the operation.
+	 *
+	 * @param nanos
+	 *            how long it took, in nanoseconds
+	 */
+	public void record(long nanos) {
+		if (nanos < 0) {
+			// nanoTime is monotonic, but be safe
+			nanos = 0;
+		}
+		buckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(nanos));
+		count.increment();
+		total.add(nanos);
+		long longest = max.get();
+		while (nanos > longest && !max.compareAndSet(longest, nanos)) {
+			longest = max.get();
+		}
+	}
+
+	/**
+	 * Forgets every latency recorded.
+	 */
+	public void reset() {
+		for (int b = 0; b < BUCKETS; b++) {
+			buckets.set(b, 0);
+		}
+		calls.reset();
+		count.reset();
+		total.reset();
+		max.set(0);
+	}
+
+	/**
+	 * Returns the name of the operation.
+	 *
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns how often the operation ran.
+	 *
+	 * @return the number of runs counted
+	 */
+	public long getCount() {
+		return calls.sum();
+	}
+
+	/**
+	 * Returns how many runs of the operation were timed.
+	 *
+	 * @return the number of latencies recorded
+	 */
+	public long getSamples() {
+		return count.sum();
+	}
+
+	/**
+	 * Returns the mean latency.
+	 *
+	 * @return the mean in nanoseconds, or 0 if nothing was recorded
+	 */
+	public long getMeanNanos() {
+		long n = count.sum();
+		if (n == 0) {
+			return 0;
+		}
+		return total.sum() / n;
+	}
+
+	/**
+	 * Returns the longest latency.
+	 *
+	 * @return the longest in nanoseconds, or 0 if nothing was recorded
+	 */
+	public long getMaxNanos() {
+		return max.get();
+	}
+
+	/**
+	 * Returns the median latency.
+	 *
+	 * @return an upper bound on the median, in nanoseconds
+	 */
+	public long getP50Nanos() {
+		final double half = 0.5;
+		return getPercentileNanos(half);
+	}
+
+	/**
+	 * Returns the 99th percentile latency.
+	 *
+	 * @return an upper bound on the 99th percentile, in nanoseconds
+	 */
+	public long getP99Nanos() {
+		final double p99 = 0.99;
+		return getPercentileNanos(p99);
+	}
+
+	/**
+	 * Returns a percentile of the latencies, as the upper end of the bucket
+	 * holding it.
+	 *
+	 * @requires 0 <= fraction <= 1
+	 * @param fraction
+	 *            the fraction of latencies that are at most the result
+	 * @return an upper bound on the percentile in nanoseconds, or 0 if
+	 *         nothing was recorded
+	 */
+	public long getPercentileNanos(double fraction) {
+		long[] counts = new long[BUCKETS];
+		long n = 0;
+		for (int b = 0; b < BUCKETS; b++) {
+			counts[b] = buckets.get(b);
+			n += counts[b];
+		}
+		long rank = (long) Math.ceil(fraction * n);
+		long seen = 0;
+		for (int b = 0; b < BUCKETS; b++) {
+			seen += counts[b];
+			if (counts[b] > 0 && seen >= rank) {
+				return Math.min((1L << b) - 1, max.get());
+			}
+		}
+		return 0;
+	}
+
+	@Override
+	public String toString() {
+		return name + ": count " + getCount() + ", timed " + getSamples()
+				+ ", mean " + getMeanNanos()
+				+ " ns, p50 " + getP50Nanos() + " ns, p99 " + getP99Nanos()
+				+ " ns, max " + getMaxNanos() + " ns";
+	}
+}
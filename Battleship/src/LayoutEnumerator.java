@@ -0,0 +1,384 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts, or streams, every legal layout of the five-ship fleet on the 10x10
+ * grid. Ships are distinguishable, so swapping the cruiser and the submarine
+ * gives a different layout.
+ *
+ * Layouts are found by depth-first search over the ships, largest first, with
+ * the first ship's placements spread over a fork/join pool. When counting, the
+ * last ship isn't searched at all: the placements of a ship that fit into the
+ * free positions are counted with a few shifts and bit counts. The count for
+ * the last two ships only depends on the positions already occupied, so it is
+ * memoized on that occupancy mask.
+ *
+ * Run with: java LayoutEnumerator
+ */
+public final class LayoutEnumerator {
+	// Fields
+	/**
+	 * The ships of a complete fleet, in the order they are placed.
+	 */
+	public static final ShipEnum[] FLEET = {ShipEnum.Aircraft_Carrier,
+			ShipEnum.Battleship, ShipEnum.Cruiser, ShipEnum.Submarine,
+			ShipEnum.Destroyer};
+
+	/**
+	 * Number of positions stored in the low word.
+	 */
+	private static final int WORD = 64;
+
+	/**
+	 * Every position of the grid in the high word.
+	 */
+	private static final long HIGH_BOARD = (1L << (PlacementTable.CELLS
+			- WORD)) - 1;
+
+	/**
+	 * The depth whose count is memoized.
+	 */
+	private static final int MEMO_DEPTH = FLEET.length - 2;
+
+	/**
+	 * Initial capacity of a memo table; always a power of two.
+	 */
+	private static final int MEMO_CAPACITY = 1 << 16;
+
+	/**
+	 * Sizes of the ships, in placing order.
+	 */
+	private static final int[] SIZES = new int[FLEET.length];
+
+	/**
+	 * Origins from which a ship of each size fits going right, low and high
+	 * words, indexed by size.
+	 */
+	private static final long[][] RIGHT_ORIGINS =
+			new long[PlacementTable.MAX_SIZE + 1][2];
+
+	/**
+	 * Origins from which a ship of each size fits going down, low and high
+	 * words, indexed by size.
+	 */
+	private static final long[][] DOWN_ORIGINS =
+			new long[PlacementTable.MAX_SIZE + 1][2];
+
+	static {
+		for (int i = 0; i < FLEET.length; i++) {
+			SIZES[i] = PlacementTable.shipSize(FLEET[i]);
+		}
+		for (int size = PlacementTable.MIN_SIZE;
+				size <= PlacementTable.MAX_SIZE; size++) {
+			for (int origin = 0; origin < PlacementTable.CELLS; origin++) {
+				int word = origin / WORD;
+				long bit = 1L << (origin % WORD);
+				if (PlacementTable.isLegal(size, CommandEnum.right, origin)) {
+					RIGHT_ORIGINS[size][word] |= bit;
+				}
+				if (PlacementTable.isLegal(size, CommandEnum.down, origin)) {
+					DOWN_ORIGINS[size][word] |= bit;
+				}
+			}
+		}
+	}
+
+	/**
+	 * The pool the search runs on.
+	 */
+	private final ForkJoinPool pool;
+
+	// Constructor
+	/**
+	 * Constructor.
+	 *
+	 * @param pool
+	 *            the pool the search runs on
+	 */
+	public LayoutEnumerator(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	// Nested classes
+	/**
+	 * Searches every layout whose first ship is at one placement, or splits
+	 * itself into one task per placement of the first ship.
+	 */
+	@SuppressWarnings("serial")
+	private static final class SearchTask extends RecursiveTask<Long> {
+		/**
+		 * The placement of the first ship, or -1 to split.
+		 */
+		private final int first;
+
+		/**
+		 * Positions where no ship may be, low word.
+		 */
+		private final long blockedLow;
+
+		/**
+		 * Positions where no ship may be, high word.
+		 */
+		private final long blockedHigh;
+
+		/**
+		 * Receives every layout, or null to only count them.
+		 */
+		private final LayoutVisitor visitor;
+
+		/**
+		 * The placement numbers of the layout being built.
+		 */
+		private final int[] placements = new int[FLEET.length];
+
+		/**
+		 * Memoized counts, keyed by occupancy at MEMO_DEPTH.
+		 */
+		private long[] memoLow, memoHigh, memoCount;
+
+		/**
+		 * The number of entries in the memo table.
+		 */
+		private int memoSize;
+
+		/**
+		 * Constructor.
+		 */
+		SearchTask(int first, long blockedLow, long blockedHigh,
+				LayoutVisitor visitor) {
+			this.first = first;
+			this.blockedLow = blockedLow;
+			this.blockedHigh = blockedHigh;
+			this.visitor = visitor;
+		}
+
+		@Override
+		protected Long compute() {
+			int size = SIZES[0];
+			if (first < 0) {
+				// one task for every placement of the first ship
+				int count = PlacementTable.count(size);
+				SearchTask[] tasks = new SearchTask[count];
+				for (int k = 0; k < count; k++) {
+					tasks[k] = new SearchTask(k, blockedLow, blockedHigh,
+							visitor);
+				}
+				invokeAll(tasks);
+				long total = 0;
+				for (SearchTask task : tasks) {
+					total += task.join();
+				}
+				return total;
+			}
+			long low = PlacementTable.placementLow(size, first);
+			long high = PlacementTable.placementHigh(size, first);
+			if ((low & blockedLow) != 0 || (high & blockedHigh) != 0) {
+				return 0L;
+			}
+			placements[0] = first;
+			if (visitor != null) {
+				return visit(1, low | blockedLow, high | blockedHigh);
+			}
+			memoLow = new long[MEMO_CAPACITY];
+			memoHigh = new long[MEMO_CAPACITY];
+			memoCount = new long[MEMO_CAPACITY];
+			return count(1, low | blockedLow, high | blockedHigh);
+		}
+
+		/**
+		 * Counts the layouts of the ships from depth on, around the occupied
+		 * positions.
+		 */
+		private long count(int depth, long low, long high) {
+			int size = SIZES[depth];
+			if (depth == FLEET.length - 1) {
+				return fits(size, low, high);
+			}
+			if (depth == MEMO_DEPTH) {
+				int slot = find(low, high);
+				if (memoLow[slot] == low && memoHigh[slot] == high) {
+					return memoCount[slot];
+				}
+			}
+			long total = 0;
+			for (int k = 0; k < PlacementTable.count(size); k++) {
+				long pLow = PlacementTable.placementLow(size, k);
+				long pHigh = PlacementTable.placementHigh(size, k);
+				if ((pLow & low) == 0 && (pHigh & high) == 0) {
+					total += count(depth + 1, low | pLow, high | pHigh);
+				}
+			}
+			if (depth == MEMO_DEPTH) {
+				remember(low, high, total);
+			}
+			return total;
+		}
+
+		/**
+		 * Streams the layouts of the ships from depth on, around the occupied
+		 * positions, and returns how many there were.
+		 */
+		private long visit(int depth, long low, long high) {
+			int size = SIZES[depth];
+			long total = 0;
+			for (int k = 0; k < PlacementTable.count(size); k++) {
+				long pLow = PlacementTable.placementLow(size, k);
+				long pHigh = PlacementTable.placementHigh(size, k);
+				if ((pLow & low) == 0 && (pHigh & high) == 0) {
+					placements[depth] = k;
+					if (depth == FLEET.length - 1) {
+						visitor.visit(placements);
+						total++;
+					} else {
+						total += visit(depth + 1, low | pLow, high | pHigh);
+					}
+				}
+			}
+			return total;
+		}
+
+		/**
+		 * Returns the memo slot holding occupancy (low, high), or the empty
+		 * slot where it belongs. Occupancy is never zero at MEMO_DEPTH, so a
+		 * zero key marks an empty slot.
+		 */
+		private int find(long low, long high) {
+			final long mix = 0x9E3779B97F4A7C15L;
+			int mask = memoLow.length - 1;
+			long hash = (low * mix) ^ (high + (low >>> WORD / 2));
+			int slot = (int) ((hash * mix) >>> WORD / 2) & mask;
+			while ((memoLow[slot] | memoHigh[slot]) != 0
+					&& (memoLow[slot] != low || memoHigh[slot] != high)) {
+				slot = (slot + 1) & mask;
+			}
+			return slot;
+		}
+
+		/**
+		 * Stores a count in the memo table, doubling it when half full.
+		 */
+		private void remember(long low, long high, long count) {
+			if (2 * (memoSize + 1) > memoLow.length) {
+				long[] oldLow = memoLow, oldHigh = memoHigh;
+				long[] oldCount = memoCount;
+				memoLow = new long[oldLow.length * 2];
+				memoHigh = new long[oldLow.length * 2];
+				memoCount = new long[oldLow.length * 2];
+				for (int i = 0; i < oldLow.length; i++) {
+					if ((oldLow[i] | oldHigh[i]) != 0) {
+						int slot = find(oldLow[i], oldHigh[i]);
+						memoLow[slot] = oldLow[i];
+						memoHigh[slot] = oldHigh[i];
+						memoCount[slot] = oldCount[i];
+					}
+				}
+			}
+			int slot = find(low, high);
+			memoLow[slot] = low;
+			memoHigh[slot] = high;
+			memoCount[slot] = count;
+			memoSize++;
+		}
+	}
+
+	// Methods
+	/**
+	 * Counts every legal layout of the fleet.
+	 *
+	 * @return the number of layouts
+	 */
+	public long count() {
+		return count(0, 0);
+	}
+
+	/**
+	 * Counts the legal layouts of the fleet that leave some positions free,
+	 * for example the misses seen so far.
+	 *
+	 * @param blockedLow
+	 *            positions 0 to 63 where no ship may be
+	 * @param blockedHigh
+	 *            positions 64 to 99 where no ship may be
+	 * @return the number of layouts avoiding every blocked position
+	 */
+	public long count(long blockedLow, long blockedHigh) {
+		return pool.invoke(new SearchTask(-1, blockedLow, blockedHigh, null));
+	}
+
+	/**
+	 * Streams every legal layout of the fleet to visitor. Layouts are visited
+	 * on several threads at once, so visitor must be thread safe.
+	 *
+	 * @param visitor
+	 *            receives every layout
+	 * @return the number of layouts
+	 */
+	public long enumerate(LayoutVisitor visitor) {
+		return enumerate(visitor, 0, 0);
+	}
+
+	/**
+	 * Streams the legal layouts of the fleet that leave some positions free
+	 * to visitor. Layouts are visited on several threads at once, so visitor
+	 * must be thread safe.
+	 *
+	 * @param visitor
+	 *            receives every layout
+	 * @param blockedLow
+	 *            positions 0 to 63 where no ship may be
+	 * @param blockedHigh
+	 *            positions 64 to 99 where no ship may be
+	 * @return the number of layouts avoiding every blocked position
+	 */
+	public long enumerate(LayoutVisitor visitor, long blockedLow,
+			long blockedHigh) {
+		return pool.invoke(new SearchTask(-1, blockedLow, blockedHigh,
+				visitor));
+	}
+
+	/**
+	 * Returns the number of placements of a ship of size that fit into the
+	 * positions not occupied by (low, high).
+	 */
+	private static long fits(int size, long low, long high) {
+		long freeLow = ~low, freeHigh = ~high & HIGH_BOARD;
+		// origins whose next size - 1 positions to the right are free
+		long rightLow = freeLow, rightHigh = freeHigh;
+		// origins whose next size - 1 positions below are free
+		long downLow = freeLow, downHigh = freeHigh;
+		for (int i = 1; i < size; i++) {
+			rightLow &= shiftLow(freeLow, freeHigh, i);
+			rightHigh &= freeHigh >>> i;
+			downLow &= shiftLow(freeLow, freeHigh, i * PlacementTable.ROW);
+			downHigh &= freeHigh >>> (i * PlacementTable.ROW);
+		}
+		return Long.bitCount(rightLow & RIGHT_ORIGINS[size][0])
+				+ Long.bitCount(rightHigh & RIGHT_ORIGINS[size][1])
+				+ Long.bitCount(downLow & DOWN_ORIGINS[size][0])
+				+ Long.bitCount(downHigh & DOWN_ORIGINS[size][1]);
+	}
+
+	/**
+	 * Returns the low word of the 100-bit mask (low, high) shifted right by
+	 * 0 < n < 64 positions.
+	 */
+	private static long shiftLow(long low, long high, int n) {
+		return (low >>> n) | (high << (WORD - n));
+	}
+
+	// Main method
+	/**
+	 * Counts every legal layout of the fleet and prints the count.
+	 *
+	 * @param args
+	 *            is empty
+	 */
+	public static void main(String[] args) {
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		long start = System.nanoTime();
+		long layouts = new LayoutEnumerator(pool).count();
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("%d layouts in %.2f s on %d threads%n", layouts,
+				seconds, pool.getParallelism());
+	}
+}
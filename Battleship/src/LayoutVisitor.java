@@ -0,0 +1,15 @@
+/**
+ * Receives the layouts streamed by LayoutEnumerator.
+ */
+public interface LayoutVisitor {
+
+	/**
+	 * Called once for every legal layout of the fleet.
+	 * 
+	 * @param placements
+	 *            the PlacementTable placement number of each ship, in the
+	 *            order of LayoutEnumerator.FLEET. The array is reused for the
+	 *            next layout, so copy it to keep it.
+	 */
+	void visit(int[] placements);
+}
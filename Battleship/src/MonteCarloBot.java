@@ -0,0 +1,361 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A bot that samples random layouts of the ships still afloat which agree
+ * with everything it has seen - no ship across a miss or a sunk ship, and
+ * every open hit covered - and fires at the unknown position covered by the
+ * most sampled layouts.
+ *
+ * Samples are drawn in parallel on a fork/join pool. Every task draws from its
+ * own stream split off the bot's random generator, so a bot with a given seed
+ * draws the same samples however the work is scheduled, unless the deadline
+ * cuts sampling short.
+ */
+public final class MonteCarloBot implements BattleshipBot {
+	// Fields
+	/**
+	 * The number of positions on a map.
+	 */
+	private static final int CELLS = PlacementTable.CELLS;
+
+	/**
+	 * Number of positions stored in the low word.
+	 */
+	private static final int WORD = 64;
+
+	/**
+	 * The number of samples a task draws itself instead of splitting further.
+	 */
+	private static final int THRESHOLD = 256;
+
+	/**
+	 * The number of samples drawn between deadline checks.
+	 */
+	private static final int CHECK_EVERY = 32;
+
+	/**
+	 * How many random placements to try for a ship before giving up on a
+	 * sample.
+	 */
+	private static final int TRIES = 64;
+
+	/**
+	 * Default number of samples per shot.
+	 */
+	public static final int DEFAULT_SAMPLES = 4096;
+
+	/**
+	 * Default time allowed per shot in milliseconds.
+	 */
+	public static final long DEFAULT_MILLIS = 20;
+
+	/**
+	 * The ships of a complete fleet.
+	 */
+	private static final ShipEnum[] FLEET = {ShipEnum.Aircraft_Carrier,
+			ShipEnum.Battleship, ShipEnum.Cruiser, ShipEnum.Submarine,
+			ShipEnum.Destroyer};
+
+	/**
+	 * The pool samples are drawn on.
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * Source of the bot's random choices.
+	 */
+	private final SplittableRandom random;
+
+	/**
+	 * The number of samples drawn per shot.
+	 */
+	private final int samples;
+
+	/**
+	 * The time allowed per shot in nanoseconds.
+	 */
+	private final long budgetNanos;
+
+	/**
+	 * Sizes of the ships still afloat, largest first.
+	 */
+	private final int[] afloat = new int[FLEET.length];
+
+	/**
+	 * The number of ships still afloat.
+	 */
+	private int afloatCount;
+
+	/**
+	 * Positions 0 to 63 and 64 to 99 that have been fired at.
+	 */
+	private long shotLow, shotHigh;
+
+	/**
+	 * Positions where no ship can be: misses and sunk ships.
+	 */
+	private long blockedLow, blockedHigh;
+
+	/**
+	 * Hits on ships that are still afloat.
+	 */
+	private long hitLow, hitHigh;
+
+	// Constructor
+	/**
+	 * Constructor.
+	 *
+	 * @param seed
+	 *            the seed for the bot's random choices
+	 * @param samples
+	 *            the number of layouts to sample per shot
+	 * @param millis
+	 *            the time allowed per shot, in milliseconds
+	 * @param pool
+	 *            the pool samples are drawn on
+	 */
+	public MonteCarloBot(long seed, int samples, long millis,
+			ForkJoinPool pool) {
+		final long nanosPerMilli = 1000000L;
+		this.random = new SplittableRandom(seed);
+		this.samples = samples;
+		this.budgetNanos = millis * nanosPerMilli;
+		this.pool = pool;
+		for (ShipEnum ship : FLEET) {
+			afloat[afloatCount++] = PlacementTable.shipSize(ship);
+		}
+	}
+
+	// Nested classes
+	/**
+	 * Draws a range of samples and counts, for every position, the accepted
+	 * layouts that cover it.
+	 */
+	@SuppressWarnings("serial")
+	private final class SampleTask extends RecursiveTask<int[]> {
+		/**
+		 * The stream this task draws from.
+		 */
+		private final SplittableRandom stream;
+
+		/**
+		 * The number of samples to draw.
+		 */
+		private final int count;
+
+		/**
+		 * System.nanoTime at which sampling stops.
+		 */
+		private final long deadline;
+
+		/**
+		 * Constructor.
+		 */
+		SampleTask(SplittableRandom stream, int count, long deadline) {
+			this.stream = stream;
+			this.count = count;
+			this.deadline = deadline;
+		}
+
+		@Override
+		protected int[] compute() {
+			if (count > THRESHOLD) {
+				/*
+				 * Split the stream before drawing, so the draws don't depend on
+				 * scheduling.
+				 */
+				SampleTask left = new SampleTask(stream.split(), count / 2,
+						deadline);
+				left.fork();
+				int[] counts = new SampleTask(stream, count - count / 2,
+						deadline).compute();
+				int[] other = left.join();
+				for (int i = 0; i < CELLS; i++) {
+					counts[i] += other[i];
+				}
+				return counts;
+			}
+			int[] counts = new int[CELLS];
+			for (int i = 0; i < count; i++) {
+				if (i % CHECK_EVERY == 0 && System.nanoTime() > deadline) {
+					break;
+				}
+				sample(stream, counts);
+			}
+			return counts;
+		}
+	}
+
+	// Methods
+	@Override
+	public void placeFleet(BattleshipGame game, CommandEnum player) {
+		RandomBot.placeRandomFleet(game, player, random);
+	}
+
+	@Override
+	public int nextShot() {
+		long deadline = System.nanoTime() + budgetNanos;
+		int[] counts = pool.invoke(new SampleTask(random.split(), samples,
+				deadline));
+		// fire at the unknown position covered by the most layouts
+		int best = -1, ties = 0;
+		for (int cell = 0; cell < CELLS; cell++) {
+			if (PlacementTable.contains(shotLow, shotHigh, cell)) {
+				continue;
+			}
+			if (best < 0 || counts[cell] > counts[best]) {
+				best = cell;
+				ties = 1;
+			} else if (counts[cell] == counts[best]
+					&& random.nextInt(++ties) == 0) {
+				best = cell;
+			}
+		}
+		if (counts[best] == 0 && (hitLow | hitHigh) != 0) {
+			// no layout was accepted in time, so try next to an open hit
+			int next = nextToHit();
+			if (next >= 0) {
+				return next;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Returns an unknown position next to an open hit, or -1 if there is
+	 * none.
+	 */
+	private int nextToHit() {
+		final int row = PlacementTable.ROW;
+		for (int cell = 0; cell < CELLS; cell++) {
+			if (!PlacementTable.contains(hitLow, hitHigh, cell)) {
+				continue;
+			}
+			int[] neighbours = {cell - row, cell + row, cell - 1, cell + 1};
+			for (int n : neighbours) {
+				boolean sameLine = n / row == cell / row
+						|| n % row == cell % row;
+				if (n >= 0 && n < CELLS && sameLine
+						&& !PlacementTable.contains(shotLow, shotHigh, n)) {
+					return n;
+				}
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public void shotResult(int mapIndex, ShipEnum result, boolean sunk) {
+		long low = 0, high = 0;
+		if (mapIndex < WORD) {
+			low = 1L << mapIndex;
+		} else {
+			high = 1L << (mapIndex - WORD);
+		}
+		shotLow |= low;
+		shotHigh |= high;
+		if (result == ShipEnum.empty) {
+			blockedLow |= low;
+			blockedHigh |= high;
+			return;
+		}
+		hitLow |= low;
+		hitHigh |= high;
+		if (sunk) {
+			sink(mapIndex, PlacementTable.shipSize(result));
+		}
+	}
+
+	/**
+	 * Records that the ship of size through mapIndex has sunk.
+	 */
+	private void sink(int mapIndex, int size) {
+		// the ship is no longer afloat
+		for (int i = 0; i < afloatCount; i++) {
+			if (afloat[i] == size) {
+				System.arraycopy(afloat, i + 1, afloat, i, afloatCount - i - 1);
+				afloatCount--;
+				break;
+			}
+		}
+		/*
+		 * The sunk ship lies on open hits through mapIndex. If more than one
+		 * placement fits, any of them is a reasonable guess.
+		 */
+		for (int k = 0; k < PlacementTable.count(size); k++) {
+			long low = PlacementTable.placementLow(size, k);
+			long high = PlacementTable.placementHigh(size, k);
+			if (PlacementTable.contains(low, high, mapIndex)
+					&& (low & ~hitLow) == 0 && (high & ~hitHigh) == 0) {
+				hitLow &= ~low;
+				hitHigh &= ~high;
+				blockedLow |= low;
+				blockedHigh |= high;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Draws one layout of the ships afloat and, if it agrees with every open
+	 * hit, adds one to counts for each unknown position it covers.
+	 */
+	private void sample(SplittableRandom stream, int[] counts) {
+		long low = blockedLow, high = blockedHigh;
+		for (int i = 0; i < afloatCount; i++) {
+			int size = afloat[i];
+			int placements = PlacementTable.count(size);
+			boolean placed = false;
+			for (int t = 0; t < TRIES && !placed; t++) {
+				int k = stream.nextInt(placements);
+				long pLow = PlacementTable.placementLow(size, k);
+				long pHigh = PlacementTable.placementHigh(size, k);
+				if ((pLow & low) == 0 && (pHigh & high) == 0) {
+					low |= pLow;
+					high |= pHigh;
+					placed = true;
+				}
+			}
+			if (!placed) {
+				return;
+			}
+		}
+		// the layout must explain every hit on a ship still afloat
+		if ((hitLow & ~low) != 0 || (hitHigh & ~high) != 0) {
+			return;
+		}
+		low &= ~(blockedLow | shotLow);
+		high &= ~(blockedHigh | shotHigh);
+		while (low != 0) {
+			counts[Long.numberOfTrailingZeros(low)]++;
+			low &= low - 1;
+		}
+		while (high != 0) {
+			counts[WORD + Long.numberOfTrailingZeros(high)]++;
+			high &= high - 1;
+		}
+	}
+
+	/**
+	 * Returns a factory for Monte Carlo bots.
+	 *
+	 * @param samples
+	 *            the number of layouts to sample per shot
+	 * @param millis
+	 *            the time allowed per shot, in milliseconds
+	 * @param pool
+	 *            the pool samples are drawn on
+	 * @return a factory creating a new MonteCarloBot for every game
+	 */
+	public static BattleshipBotFactory factory(final int samples,
+			final long millis, final ForkJoinPool pool) {
+		return new BattleshipBotFactory() {
+			@Override
+			public BattleshipBot newBot(long seed) {
+				return new MonteCarloBot(seed, samples, millis, pool);
+			}
+		};
+	}
+}
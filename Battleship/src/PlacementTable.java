@@ -0,0 +1,427 @@
+/**
+ * Precomputed footprints of every ship placement on the 10x10 grid. A
+ * footprint is a 100-bit mask split over two longs in the same way as
+ * BitboardBattleShipModel: positions 0 to 63 in the low word and positions 64
+ * to 99 in the high word.
+ *
+ * Footprints can be looked up by (ship size, direction, origin), exactly as
+ * addShip receives them, or walked as the list of distinct placements for a
+ * ship size. A placement that would leave the grid or wrap into another row
+ * has an empty footprint.
+ */
+public final class PlacementTable {
+	// Fields
+	/**
+	 * The smallest ship size.
+	 */
+	public static final int MIN_SIZE = 2;
+
+	/**
+	 * The largest ship size.
+	 */
+	public static final int MAX_SIZE = 5;
+
+	/**
+	 * The number of positions on the grid.
+	 */
+	public static final int CELLS = 100;
+
+	/**
+	 * The number of positions in a row of the grid.
+	 */
+	public static final int ROW = 10;
+
+	/**
+	 * Number of positions stored in the low word.
+	 */
+	private static final int WORD = 64;
+
+	/**
+	 * The number of placement directions: up, down, left and right.
+	 */
+	private static final int DIRECTIONS = 4;
+
+	/**
+	 * Footprint low words, indexed by slot(size, direction, origin).
+	 */
+	private static final long[] LOW = new long[(MAX_SIZE - MIN_SIZE + 1)
+			* DIRECTIONS * CELLS];
+
+	/**
+	 * Footprint high words, indexed by slot(size, direction, origin).
+	 */
+	private static final long[] HIGH = new long[LOW.length];
+
+	/**
+	 * Low words of the distinct placements of each size, indexed by size.
+	 */
+	private static final long[][] PLACEMENT_LOW = new long[MAX_SIZE + 1][];
+
+	/**
+	 * High words of the distinct placements of each size, indexed by size.
+	 */
+	private static final long[][] PLACEMENT_HIGH = new long[MAX_SIZE + 1][];
+
+	/**
+	 * Origins of the distinct placements of each size, indexed by size.
+	 */
+	private static final int[][] PLACEMENT_ORIGIN = new int[MAX_SIZE + 1][];
+
+	/**
+	 * Directions of the distinct placements of each size, indexed by size.
+	 */
+	private static final CommandEnum[][] PLACEMENT_DIRECTION =
+			new CommandEnum[MAX_SIZE + 1][];
+
+	static {
+		final CommandEnum[] directions = {CommandEnum.up, CommandEnum.down,
+				CommandEnum.left, CommandEnum.right};
+		final CommandEnum[] canonical = {CommandEnum.down, CommandEnum.right};
+		for (int size = MIN_SIZE; size <= MAX_SIZE; size++) {
+			// fill in the footprint of every (direction, origin) pair
+			for (CommandEnum direction : directions) {
+				for (int origin = 0; origin < CELLS; origin++) {
+					if (fits(size, direction, origin)) {
+						int slot = slot(size, direction, origin);
+						int step = step(direction);
+						for (int i = 0; i < size; i++) {
+							int index = origin + i * step;
+							if (index < WORD) {
+								LOW[slot] |= 1L << index;
+							} else {
+								HIGH[slot] |= 1L << (index - WORD);
+							}
+						}
+					}
+				}
+			}
+			/*
+			 * Every footprint can be reached from two directions, so the
+			 * distinct placements are the ones going down or right from their
+			 * top or left position.
+			 */
+			int count = 0;
+			for (int origin = 0; origin < CELLS; origin++) {
+				if (fits(size, CommandEnum.down, origin)) {
+					count++;
+				}
+				if (fits(size, CommandEnum.right, origin)) {
+					count++;
+				}
+			}
+			PLACEMENT_LOW[size] = new long[count];
+			PLACEMENT_HIGH[size] = new long[count];
+			PLACEMENT_ORIGIN[size] = new int[count];
+			PLACEMENT_DIRECTION[size] = new CommandEnum[count];
+			int k = 0;
+			for (int origin = 0; origin < CELLS; origin++) {
+				for (CommandEnum direction : canonical) {
+					if (fits(size, direction, origin)) {
+						int slot = slot(size, direction, origin);
+						PLACEMENT_LOW[size][k] = LOW[slot];
+						PLACEMENT_HIGH[size][k] = HIGH[slot];
+						PLACEMENT_ORIGIN[size][k] = origin;
+						PLACEMENT_DIRECTION[size][k] = direction;
+						k++;
+					}
+				}
+			}
+		}
+	}
+
+	// Constructor
+	/**
+	 * Private constructor for this utility class.
+	 */
+	private PlacementTable() {
+	}
+
+	// Methods
+	/**
+	 * Returns the number of positions ship occupies.
+	 *
+	 * @param ship
+	 *            the ship token
+	 * @return the size of ship, or 0 if ship is empty or hit
+	 */
+	public static int shipSize(ShipEnum ship) {
+		// needed constants
+		final int desSize = 2, subSize = 3, cruSize = 3, batSize = 4,
+				airSize = 5;
+		switch (ship) {
+		case Aircraft_Carrier:
+			return airSize;
+		case Battleship:
+			return batSize;
+		case Cruiser:
+			return cruSize;
+		case Submarine:
+			return subSize;
+		case Destroyer:
+			return desSize;
+		default:
+			return 0;
+		}
+	}
+
+	/**
+	 * Returns the difference between consecutive positions of a ship placed in
+	 * direction.
+	 *
+	 * @param direction
+	 *            the placement direction
+	 * @return -10 for up, 10 for down, -1 for left, 1 for right and 0
+	 *         otherwise
+	 */
+	public static int step(CommandEnum direction) {
+		switch (direction) {
+		case up:
+			return -ROW;
+		case down:
+			return ROW;
+		case left:
+			return -1;
+		case right:
+			return 1;
+		default:
+			return 0;
+		}
+	}
+
+	/**
+	 * Returns the difference between consecutive positions of a ship placed in
+	 * direction on a grid of any width.
+	 *
+	 * @param width
+	 *            the number of positions in a row
+	 * @param direction
+	 *            the placement direction
+	 * @return -width for up, width for down, -1 for left, 1 for right and 0
+	 *         otherwise
+	 */
+	public static int step(int width, CommandEnum direction) {
+		switch (direction) {
+		case up:
+			return -width;
+		case down:
+			return width;
+		default:
+			return step(direction);
+		}
+	}
+
+	/**
+	 * Returns true if a ship of size placed at origin in direction lies
+	 * entirely on a grid of any dimensions without wrapping into another row.
+	 * Position i of the grid is in row i / width and column i % width.
+	 *
+	 * @param width
+	 *            the number of positions in a row
+	 * @param height
+	 *            the number of rows
+	 * @param size
+	 *            the number of positions the ship occupies
+	 * @param direction
+	 *            the placement direction
+	 * @param origin
+	 *            the first position of the ship
+	 * @return true if and only if the placement is legal on an empty grid
+	 */
+	public static boolean isLegal(int width, int height, int size,
+			CommandEnum direction, int origin) {
+		if (size < 1 || origin < 0 || origin / width >= height) {
+			return false;
+		}
+		int row = origin / width, column = origin % width;
+		switch (direction) {
+		case up:
+			return row >= size - 1;
+		case down:
+			return row + size <= height;
+		case left:
+			return column >= size - 1;
+		case right:
+			return column + size <= width;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Returns true if a ship of size placed at origin in direction lies
+	 * entirely on the grid without wrapping into another row.
+	 *
+	 * @param size
+	 *            the number of positions the ship occupies
+	 * @param direction
+	 *            the placement direction
+	 * @param origin
+	 *            the first position of the ship
+	 * @return true if and only if the placement is legal on an empty grid
+	 */
+	public static boolean isLegal(int size, CommandEnum direction,
+			int origin) {
+		if (size < MIN_SIZE || size > MAX_SIZE || origin < 0
+				|| origin >= CELLS || step(direction) == 0) {
+			return false;
+		}
+		int slot = slot(size, direction, origin);
+		return (LOW[slot] | HIGH[slot]) != 0;
+	}
+
+	/**
+	 * Returns positions 0 to 63 of the footprint of a placement.
+	 *
+	 * @param size
+	 *            the number of positions the ship occupies
+	 * @param direction
+	 *            the placement direction
+	 * @param origin
+	 *            the first position of the ship
+	 * @return the low word of the footprint, or 0 if the placement is not
+	 *         legal
+	 */
+	public static long lowMask(int size, CommandEnum direction, int origin) {
+		if (!isLegal(size, direction, origin)) {
+			return 0;
+		}
+		return LOW[slot(size, direction, origin)];
+	}
+
+	/**
+	 * Returns positions 64 to 99 of the footprint of a placement.
+	 *
+	 * @param size
+	 *            the number of positions the ship occupies
+	 * @param direction
+	 *            the placement direction
+	 * @param origin
+	 *            the first position of the ship
+	 * @return the high word of the footprint, or 0 if the placement is not
+	 *         legal
+	 */
+	public static long highMask(int size, CommandEnum direction, int origin) {
+		if (!isLegal(size, direction, origin)) {
+			return 0;
+		}
+		return HIGH[slot(size, direction, origin)];
+	}
+
+	/**
+	 * Returns the number of distinct placements of a ship of size.
+	 *
+	 * @requires MIN_SIZE <= size <= MAX_SIZE
+	 * @param size
+	 *            the number of positions the ship occupies
+	 * @return the number of distinct footprints of that size
+	 */
+	public static int count(int size) {
+		return PLACEMENT_ORIGIN[size].length;
+	}
+
+	/**
+	 * Returns positions 0 to 63 of the k-th distinct placement of size.
+	 *
+	 * @requires MIN_SIZE <= size <= MAX_SIZE and 0 <= k < count(size)
+	 * @param size
+	 *            the number of positions the ship occupies
+	 * @param k
+	 *            the placement number
+	 * @return the low word of the footprint
+	 */
+	public static long placementLow(int size, int k) {
+		return PLACEMENT_LOW[size][k];
+	}
+
+	/**
+	 * Returns positions 64 to 99 of the k-th distinct placement of size.
+	 *
+	 * @requires MIN_SIZE <= size <= MAX_SIZE and 0 <= k < count(size)
+	 * @param size
+	 *            the number of positions the ship occupies
+	 * @param k
+	 *            the placement number
+	 * @return the high word of the footprint
+	 */
+	public static long placementHigh(int size, int k) {
+		return PLACEMENT_HIGH[size][k];
+	}
+
+	/**
+	 * Returns the origin to pass to addShip for the k-th distinct placement of
+	 * size.
+	 *
+	 * @requires MIN_SIZE <= size <= MAX_SIZE and 0 <= k < count(size)
+	 * @param size
+	 *            the number of positions the ship occupies
+	 * @param k
+	 *            the placement number
+	 * @return the top or left position of the footprint
+	 */
+	public static int placementOrigin(int size, int k) {
+		return PLACEMENT_ORIGIN[size][k];
+	}
+
+	/**
+	 * Returns the direction to pass to addShip for the k-th distinct placement
+	 * of size.
+	 *
+	 * @requires MIN_SIZE <= size <= MAX_SIZE and 0 <= k < count(size)
+	 * @param size
+	 *            the number of positions the ship occupies
+	 * @param k
+	 *            the placement number
+	 * @return down or right
+	 */
+	public static CommandEnum placementDirection(int size, int k) {
+		return PLACEMENT_DIRECTION[size][k];
+	}
+
+	/**
+	 * Returns true if the footprint given by low and high contains position
+	 * index.
+	 *
+	 * @requires 0 <= index < CELLS
+	 * @param low
+	 *            positions 0 to 63 of the footprint
+	 * @param high
+	 *            positions 64 to 99 of the footprint
+	 * @param index
+	 *            the position to test
+	 * @return true if and only if index is part of the footprint
+	 */
+	public static boolean contains(long low, long high, int index) {
+		if (index < WORD) {
+			return (low & (1L << index)) != 0;
+		}
+		return (high & (1L << (index - WORD))) != 0;
+	}
+
+	/**
+	 * Returns the table slot of a placement.
+	 */
+	private static int slot(int size, CommandEnum direction, int origin) {
+		return ((size - MIN_SIZE) * DIRECTIONS + direction.ordinal()) * CELLS
+				+ origin;
+	}
+
+	/**
+	 * Returns true if the placement stays on the grid and in one row or
+	 * column.
+	 */
+	private static boolean fits(int size, CommandEnum direction, int origin) {
+		int row = origin / ROW, column = origin % ROW;
+		switch (direction) {
+		case up:
+			return row - (size - 1) >= 0;
+		case down:
+			return row + (size - 1) < ROW;
+		case left:
+			return column - (size - 1) >= 0;
+		case right:
+			return column + (size - 1) < ROW;
+		default:
+			return false;
+		}
+	}
+}
@@ -0,0 +1,167 @@
+import java.util.Arrays;
+
+/**
+ * A set of map positions whose memory grows with the number of positions in
+ * it, not with the largest of them. Positions below DENSE_LIMIT are bits in a
+ * bitmap, which grows like a BitSet but never past DENSE_LIMIT bits, so a
+ * whole 10 x 10 map takes two longs. Larger positions are kept in an
+ * open-addressing hash table of primitive keys like the one in
+ * SparseBattleShipModel, so a few shots at the far corner of a very large map
+ * cost a few bytes rather than a bit for every position before them.
+ *
+ * @convention words holds bit mapIndex for every position in the set below
+ *             DENSE_LIMIT; keys is null, or holds mapIndex + 1 for every
+ *             position in the set from DENSE_LIMIT up and 0 for a free slot,
+ *             and is never more than half full
+ */
+public final class PositionSet {
+	// Fields
+	/**
+	 * The positions below this are kept in the bitmap.
+	 */
+	public static final int DENSE_LIMIT = 1 << 12;
+
+	/**
+	 * The number of bits in a word of the bitmap.
+	 */
+	private static final int WORD = 64;
+
+	/**
+	 * The initial number of slots of the hash table; always a power of two.
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * Multiplier spreading map indexes over the table.
+	 */
+	private static final int MIX = 0x9E3779B9;
+
+	/**
+	 * The bitmap of the positions below DENSE_LIMIT.
+	 */
+	private long[] words = new long[1];
+
+	/**
+	 * The positions from DENSE_LIMIT up, plus one, by slot, or null until
+	 * the first is added.
+	 */
+	private int[] keys;
+
+	/**
+	 * The number of positions in the hash table.
+	 */
+	private int sparseSize;
+
+	/**
+	 * The number of positions in the set.
+	 */
+	private int size;
+
+	// Methods
+	/**
+	 * Reports whether a position is in the set.
+	 *
+	 * @param mapIndex
+	 *            the position
+	 * @requires mapIndex >= 0
+	 * @return true if mapIndex is in the set
+	 */
+	public boolean contains(int mapIndex) {
+		if (mapIndex < DENSE_LIMIT) {
+			int word = mapIndex / WORD;
+			return word < words.length
+					&& (words[word] & 1L << mapIndex) != 0;
+		}
+		return keys != null && keys[find(mapIndex)] != 0;
+	}
+
+	/**
+	 * Adds a position to the set.
+	 *
+	 * @param mapIndex
+	 *            the position
+	 * @requires 0 <= mapIndex < Integer.MAX_VALUE
+	 * @return true if mapIndex was not in the set before
+	 */
+	public boolean add(int mapIndex) {
+		if (mapIndex < DENSE_LIMIT) {
+			int word = mapIndex / WORD;
+			if (word >= words.length) {
+				words = Arrays.copyOf(words, Math.min(DENSE_LIMIT / WORD,
+						Math.max(2 * words.length, word + 1)));
+			}
+			long bit = 1L << mapIndex;
+			if ((words[word] & bit) != 0) {
+				return false;
+			}
+			words[word] |= bit;
+			size++;
+			return true;
+		}
+		if (keys == null) {
+			keys = new int[INITIAL_CAPACITY];
+		}
+		int slot = find(mapIndex);
+		if (keys[slot] != 0) {
+			return false;
+		}
+		if (2 * (sparseSize + 1) > keys.length) {
+			grow();
+			slot = find(mapIndex);
+		}
+		keys[slot] = mapIndex + 1;
+		sparseSize++;
+		size++;
+		return true;
+	}
+
+	/**
+	 * Removes every position from the set, keeping its capacity.
+	 */
+	public void clear() {
+		if (size == 0) {
+			return;
+		}
+		Arrays.fill(words, 0);
+		if (sparseSize > 0) {
+			Arrays.fill(keys, 0);
+			sparseSize = 0;
+		}
+		size = 0;
+	}
+
+	/**
+	 * Returns the number of positions in the set.
+	 *
+	 * @return the size of the set
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the slot holding mapIndex, or the free slot where it belongs.
+	 */
+	private int find(int mapIndex) {
+		int mask = keys.length - 1;
+		int slot = (mapIndex * MIX) >>> Integer.numberOfLeadingZeros(mask)
+				& mask;
+		while (keys[slot] != 0 && keys[slot] != mapIndex + 1) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * Doubles the number of slots.
+	 */
+	private void grow() {
+		int[] oldKeys = keys;
+		keys = new int[oldKeys.length * 2];
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != 0) {
+				keys[find(oldKeys[i] - 1)] = oldKeys[i];
+			}
+		}
+	}
+}
@@ -0,0 +1,325 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * A bot that fires at the position covered by the most placements of the
+ * ships that are still afloat. It keeps, for every position, the number of
+ * placements of the remaining ships that cover it and avoid every miss and
+ * sunk ship, and updates those counts after each shot by only visiting the
+ * placements the shot rules out.
+ *
+ * While a ship has been hit but not sunk, the bot only considers placements
+ * through those hits, which makes it finish off the ship first.
+ */
+public final class ProbabilityDensityBot implements BattleshipBot {
+	// Fields
+	/**
+	 * The number of positions on a map.
+	 */
+	private static final int CELLS = PlacementTable.CELLS;
+
+	/**
+	 * The smallest ship size.
+	 */
+	private static final int MIN_SIZE = PlacementTable.MIN_SIZE;
+
+	/**
+	 * The largest ship size.
+	 */
+	private static final int MAX_SIZE = PlacementTable.MAX_SIZE;
+
+	/**
+	 * A position that hasn't been fired at.
+	 */
+	private static final byte UNKNOWN = 0;
+
+	/**
+	 * A position that was fired at and missed.
+	 */
+	private static final byte MISS = 1;
+
+	/**
+	 * A position that was hit, on a ship that is still afloat.
+	 */
+	private static final byte HIT = 2;
+
+	/**
+	 * A position on a ship that has been sunk.
+	 */
+	private static final byte SUNK = 3;
+
+	/**
+	 * The positions of each distinct placement, indexed by size and
+	 * placement number.
+	 */
+	private static final int[][][] PLACEMENT_CELLS =
+			new int[MAX_SIZE + 1][][];
+
+	/**
+	 * The placements covering each position, indexed by size and position.
+	 */
+	private static final int[][][] COVERING =
+			new int[MAX_SIZE + 1][CELLS][];
+
+	/**
+	 * The ships of a complete fleet.
+	 */
+	private static final ShipEnum[] FLEET = {ShipEnum.Aircraft_Carrier,
+			ShipEnum.Battleship, ShipEnum.Cruiser, ShipEnum.Submarine,
+			ShipEnum.Destroyer};
+
+	static {
+		for (int size = MIN_SIZE; size <= MAX_SIZE; size++) {
+			int count = PlacementTable.count(size);
+			PLACEMENT_CELLS[size] = new int[count][size];
+			int[] covers = new int[CELLS];
+			for (int k = 0; k < count; k++) {
+				int origin = PlacementTable.placementOrigin(size, k);
+				int step = PlacementTable.step(PlacementTable
+						.placementDirection(size, k));
+				for (int i = 0; i < size; i++) {
+					PLACEMENT_CELLS[size][k][i] = origin + i * step;
+					covers[origin + i * step]++;
+				}
+			}
+			for (int cell = 0; cell < CELLS; cell++) {
+				COVERING[size][cell] = new int[covers[cell]];
+				covers[cell] = 0;
+			}
+			for (int k = 0; k < count; k++) {
+				for (int cell : PLACEMENT_CELLS[size][k]) {
+					COVERING[size][cell][covers[cell]++] = k;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Source of the bot's random choices.
+	 */
+	private final SplittableRandom random;
+
+	/**
+	 * What the bot knows about each position of the opponent's map.
+	 */
+	private final byte[] state = new byte[CELLS];
+
+	/**
+	 * The number of ships of each size that are still afloat.
+	 */
+	private final int[] afloat = new int[MAX_SIZE + 1];
+
+	/**
+	 * Whether each placement, indexed by size and placement number, avoids
+	 * every miss and sunk ship.
+	 */
+	private final boolean[][] valid = new boolean[MAX_SIZE + 1][];
+
+	/**
+	 * For each position, the sum over ship sizes of the valid placements
+	 * covering it times the number of ships of that size afloat.
+	 */
+	private final int[] density = new int[CELLS];
+
+	/**
+	 * Scratch scores for target mode.
+	 */
+	private final int[] score = new int[CELLS];
+
+	/**
+	 * The number of positions in state HIT.
+	 */
+	private int openHits;
+
+	// Constructor
+	/**
+	 * Constructor.
+	 *
+	 * @param seed
+	 *            the seed for the bot's random choices
+	 */
+	public ProbabilityDensityBot(long seed) {
+		random = new SplittableRandom(seed);
+		for (ShipEnum ship : FLEET) {
+			afloat[PlacementTable.shipSize(ship)]++;
+		}
+		// every placement is possible on an unexplored map
+		for (int size = MIN_SIZE; size <= MAX_SIZE; size++) {
+			valid[size] = new boolean[PlacementTable.count(size)];
+			for (int k = 0; k < valid[size].length; k++) {
+				valid[size][k] = true;
+				for (int cell : PLACEMENT_CELLS[size][k]) {
+					density[cell] += afloat[size];
+				}
+			}
+		}
+	}
+
+	// Methods
+	@Override
+	public void placeFleet(BattleshipGame game, CommandEnum player) {
+		RandomBot.placeRandomFleet(game, player, random);
+	}
+
+	@Override
+	public int nextShot() {
+		if (openHits > 0) {
+			int target = bestTarget();
+			if (target >= 0) {
+				return target;
+			}
+		}
+		// hunt: pick the unknown position with the highest density
+		return best(density);
+	}
+
+	@Override
+	public void shotResult(int mapIndex, ShipEnum result, boolean sunk) {
+		if (result == ShipEnum.empty) {
+			state[mapIndex] = MISS;
+			// no ship can lie across a miss
+			invalidateCovering(mapIndex);
+			return;
+		}
+		state[mapIndex] = HIT;
+		openHits++;
+		if (sunk) {
+			sink(mapIndex, PlacementTable.shipSize(result));
+		}
+	}
+
+	/**
+	 * Records that the ship of size through mapIndex has sunk.
+	 */
+	private void sink(int mapIndex, int size) {
+		/*
+		 * The sunk ship lies on hits that aren't part of another sunk ship. If
+		 * more than one placement fits, any of them is a reasonable guess.
+		 */
+		int[] ship = null;
+		for (int k : COVERING[size][mapIndex]) {
+			if (valid[size][k] && allHit(PLACEMENT_CELLS[size][k])) {
+				ship = PLACEMENT_CELLS[size][k];
+				break;
+			}
+		}
+		// one less ship of this size can be anywhere on the map
+		afloat[size]--;
+		for (int k = 0; k < valid[size].length; k++) {
+			if (valid[size][k]) {
+				for (int cell : PLACEMENT_CELLS[size][k]) {
+					density[cell]--;
+				}
+			}
+		}
+		if (ship == null) {
+			return;
+		}
+		// no other ship can lie across the sunk one
+		for (int cell : ship) {
+			state[cell] = SUNK;
+			openHits--;
+		}
+		for (int cell : ship) {
+			invalidateCovering(cell);
+		}
+	}
+
+	/**
+	 * Returns true if every position in cells is an open hit.
+	 */
+	private boolean allHit(int[] cells) {
+		for (int cell : cells) {
+			if (state[cell] != HIT) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Marks every valid placement covering cell as invalid and removes it from
+	 * the density.
+	 */
+	private void invalidateCovering(int cell) {
+		for (int size = MIN_SIZE; size <= MAX_SIZE; size++) {
+			for (int k : COVERING[size][cell]) {
+				if (valid[size][k]) {
+					valid[size][k] = false;
+					for (int c : PLACEMENT_CELLS[size][k]) {
+						density[c] -= afloat[size];
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Scores the unknown positions on valid placements through open hits, and
+	 * returns the best one, or -1 if there is none.
+	 */
+	private int bestTarget() {
+		Arrays.fill(score, 0);
+		boolean any = false;
+		for (int hit = 0; hit < CELLS; hit++) {
+			if (state[hit] != HIT) {
+				continue;
+			}
+			for (int size = MIN_SIZE; size <= MAX_SIZE; size++) {
+				if (afloat[size] == 0) {
+					continue;
+				}
+				for (int k : COVERING[size][hit]) {
+					if (!valid[size][k]) {
+						continue;
+					}
+					for (int cell : PLACEMENT_CELLS[size][k]) {
+						if (state[cell] == UNKNOWN) {
+							score[cell] += afloat[size];
+							any = true;
+						}
+					}
+				}
+			}
+		}
+		if (!any) {
+			return -1;
+		}
+		return best(score);
+	}
+
+	/**
+	 * Returns the unknown position with the highest weight, breaking ties
+	 * uniformly at random.
+	 */
+	private int best(int[] weight) {
+		int best = -1, ties = 0;
+		for (int cell = 0; cell < CELLS; cell++) {
+			if (state[cell] != UNKNOWN) {
+				continue;
+			}
+			if (best < 0 || weight[cell] > weight[best]) {
+				best = cell;
+				ties = 1;
+			} else if (weight[cell] == weight[best]
+					&& random.nextInt(++ties) == 0) {
+				best = cell;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Returns a factory for probability density bots.
+	 *
+	 * @return a factory creating a new ProbabilityDensityBot for every game
+	 */
+	public static BattleshipBotFactory factory() {
+		return new BattleshipBotFactory() {
+			@Override
+			public BattleshipBot newBot(long seed) {
+				return new ProbabilityDensityBot(seed);
+			}
+		};
+	}
+}
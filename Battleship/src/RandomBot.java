@@ -0,0 +1,95 @@
+import java.util.SplittableRandom;
+
+/**
+ * A bot that places its ships at random and fires at every position of the
+ * opponent's map in a random order.
+ */
+public final class RandomBot implements BattleshipBot {
+	// Fields
+	/**
+	 * The number of positions on a map.
+	 */
+	private static final int CELLS = 100;
+
+	/**
+	 * Source of the bot's random choices.
+	 */
+	private final SplittableRandom random;
+
+	/**
+	 * Every position, shuffled into the order they will be fired at.
+	 */
+	private final int[] shots = new int[CELLS];
+
+	/**
+	 * The number of shots fired so far.
+	 */
+	private int fired;
+
+	// Constructor
+	/**
+	 * Constructor.
+	 * 
+	 * @param seed
+	 *            the seed for the bot's random choices
+	 */
+	public RandomBot(long seed) {
+		random = new SplittableRandom(seed);
+		for (int i = 0; i < CELLS; i++) {
+			shots[i] = i;
+		}
+		// Fisher-Yates shuffle
+		for (int i = CELLS - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int swap = shots[i];
+			shots[i] = shots[j];
+			shots[j] = swap;
+		}
+	}
+
+	// Methods
+	@Override
+	public void placeFleet(BattleshipGame game, CommandEnum player) {
+		placeRandomFleet(game, player, random);
+	}
+
+	/**
+	 * Places all five ships for player at random positions.
+	 * 
+	 * @param game
+	 *            the game whose map the ships are placed on
+	 * @param player
+	 *            the player whose ships are placed
+	 * @param random
+	 *            source of the seed for the fleet
+	 * @ensures all five ships of player are on the map
+	 */
+	static void placeRandomFleet(BattleshipGame game, CommandEnum player,
+			SplittableRandom random) {
+		new FleetGenerator(random.nextLong()).placeFleet(game, player);
+	}
+
+	@Override
+	public int nextShot() {
+		return shots[fired++];
+	}
+
+	@Override
+	public void shotResult(int mapIndex, ShipEnum result, boolean sunk) {
+		// random shots don't depend on earlier results
+	}
+
+	/**
+	 * Returns a factory for random bots.
+	 * 
+	 * @return a factory creating a new RandomBot for every game
+	 */
+	public static BattleshipBotFactory factory() {
+		return new BattleshipBotFactory() {
+			@Override
+			public BattleshipBot newBot(long seed) {
+				return new RandomBot(seed);
+			}
+		};
+	}
+}
@@ -0,0 +1,167 @@
+/**
+ * Packs what a shot did into a byte, as BattleshipGame.fireShots reports it
+ * and BinaryProtocol sends it:
+ *
+ * <pre>
+ * bits 0-2  the ShipEnum fireShot returned: the ship hit, or empty for a miss
+ * bit 3     SUNK: the shot sank the ship
+ * bit 4     LOST: the shot sank the target's last ship
+ * bits 5-6  why the shot was not fired, or 0 if it was: REPEAT if the
+ *           position had already been fired at, NOT_YOUR_TURN if it was the
+ *           target's turn, NOT_STARTED if the game hadn't started
+ * </pre>
+ */
+public final class ShotOutcome {
+	// Fields
+	/**
+	 * Masks the ShipEnum ordinal.
+	 */
+	public static final int SHIP_MASK = 0x07;
+
+	/**
+	 * Set when the shot sank the ship.
+	 */
+	public static final int SUNK = 0x08;
+
+	/**
+	 * Set when the shot sank the target's last ship.
+	 */
+	public static final int LOST = 0x10;
+
+	/**
+	 * Masks the reason a shot was not fired.
+	 */
+	public static final int NOT_FIRED = 0x60;
+
+	/**
+	 * The outcome of a shot at a position that had already been fired at.
+	 */
+	public static final byte REPEAT = 0x20;
+
+	/**
+	 * The outcome of a shot fired at the player whose turn it was.
+	 */
+	public static final byte NOT_YOUR_TURN = 0x40;
+
+	/**
+	 * The outcome of a shot fired before both fleets were placed.
+	 */
+	public static final byte NOT_STARTED = 0x60;
+
+	/**
+	 * The outcome of a miss.
+	 */
+	public static final byte MISS = (byte) ShipEnum.empty.ordinal();
+
+	/**
+	 * ShipEnum values, cached because values() returns a new array.
+	 */
+	private static final ShipEnum[] SHIPS = ShipEnum.values();
+
+	// Constructor
+	/**
+	 * Private constructor for this utility class.
+	 */
+	private ShotOutcome() {
+	}
+
+	// Methods
+	/**
+	 * Packs the result of a shot that was fired.
+	 * 
+	 * @param hit
+	 *            the token fireShot returned
+	 * @param sunk
+	 *            true if the shot sank hit
+	 * @param lost
+	 *            true if the target has lost
+	 * @return the outcome byte
+	 */
+	public static byte encode(ShipEnum hit, boolean sunk, boolean lost) {
+		int outcome = hit.ordinal();
+		if (sunk) {
+			outcome |= SUNK;
+		}
+		if (lost) {
+			outcome |= LOST;
+		}
+		return (byte) outcome;
+	}
+
+	/**
+	 * Returns the token fireShot returned.
+	 * 
+	 * @param outcome
+	 *            the outcome of a shot that was fired
+	 * @return the ship that was hit, or empty for a miss
+	 */
+	public static ShipEnum ship(byte outcome) {
+		return SHIPS[outcome & SHIP_MASK];
+	}
+
+	/**
+	 * Returns true if the shot missed.
+	 * 
+	 * @param outcome
+	 *            an outcome
+	 * @return true for a miss
+	 */
+	public static boolean isMiss(byte outcome) {
+		return outcome == MISS;
+	}
+
+	/**
+	 * Returns true if the shot hit a ship.
+	 * 
+	 * @param outcome
+	 *            an outcome
+	 * @return true for a hit, whether or not it sank the ship
+	 */
+	public static boolean isHit(byte outcome) {
+		return (outcome & NOT_FIRED) == 0 && outcome != MISS;
+	}
+
+	/**
+	 * Returns true if the shot sank a ship.
+	 * 
+	 * @param outcome
+	 *            an outcome
+	 * @return true if the ship hit has sunk
+	 */
+	public static boolean isSunk(byte outcome) {
+		return (outcome & SUNK) != 0;
+	}
+
+	/**
+	 * Returns true if the shot sank the target's last ship.
+	 * 
+	 * @param outcome
+	 *            an outcome
+	 * @return true if the target has lost
+	 */
+	public static boolean isLost(byte outcome) {
+		return (outcome & LOST) != 0;
+	}
+
+	/**
+	 * Returns true if the position had already been fired at.
+	 * 
+	 * @param outcome
+	 *            an outcome
+	 * @return true for REPEAT
+	 */
+	public static boolean isRepeat(byte outcome) {
+		return outcome == REPEAT;
+	}
+
+	/**
+	 * Returns true if the shot was fired.
+	 * 
+	 * @param outcome
+	 *            an outcome
+	 * @return false for REPEAT, NOT_YOUR_TURN and NOT_STARTED
+	 */
+	public static boolean isFired(byte outcome) {
+		return (outcome & NOT_FIRED) == 0;
+	}
+}
@@ -1,19 +1,35 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * This class implements the BattleShipModel interface, and it has a map with
- * 100 positions, initially empty, where ships can be placed or shots can be
- * fired at.
+ * width x height positions, 10 x 10 unless given, initially empty, where ships
+ * can be placed or shots can be fired at. Position i is in row i / width and
+ * column i % width.
  * 
- * @convention boardMap has 100 positions
+ * The grid is an array of ShipEnum ordinals, so placing, firing and checking
+ * for a loss take the same time on a 1000 x 1000 map as on a 10 x 10 one.
  * 
- * @correspondence boardMap is a map with 100 positions
+ * @convention board has width * height positions
+ * 
+ * @correspondence board is a map with width * height positions
  */
 public final class SolidBattleShipModel implements BattleShipModel {
 	// Fields
 	/**
-	 * Tracks the number of each ship token left on boardMap.
+	 * The number of columns of the default map.
+	 */
+	public static final int DEFAULT_WIDTH = 10;
+
+	/**
+	 * The number of rows of the default map.
+	 */
+	public static final int DEFAULT_HEIGHT = 10;
+
+	/**
+	 * Tracks the number of each ship token left on board.
 	 */
 	private Map<ShipEnum, Integer> hitTracker = new HashMap<ShipEnum, Integer>();
 
@@ -23,35 +39,89 @@ public final class SolidBattleShipModel implements BattleShipModel {
 	private final Map<ShipEnum, Integer> shipTracker;
 
 	/**
-	 * The map that the grid is stored on.
+	 * The grid, as the ShipEnum ordinal of the token at each position.
 	 */
-	private Map<Integer, ShipEnum> boardMap = new HashMap<Integer, ShipEnum>();
+	private final byte[] board;
 
 	/**
-	 * Sets the lower bound of boardMap's grid.
+	 * The number of columns.
 	 */
-	private static final int MAPMIN = 0;
+	private final int width;
 
 	/**
-	 * Sets the upper bound of boardMap's grid.
+	 * The number of rows.
 	 */
-	private static final int MAPMAX = 99;
+	private final int height;
+
+	/**
+	 * Told about every position whose token changes, or null.
+	 */
+	private CellListener listener;
+
+	/**
+	 * The ships in hitTracker, in the order their counts are saved.
+	 */
+	private static final ShipEnum[] FLEET = {ShipEnum.Aircraft_Carrier,
+			ShipEnum.Battleship, ShipEnum.Cruiser, ShipEnum.Submarine,
+			ShipEnum.Destroyer};
+
+	/**
+	 * ShipEnum values, cached because values() returns a new array.
+	 */
+	private static final ShipEnum[] TOKENS = ShipEnum.values();
+
+	/**
+	 * The token of an empty position.
+	 */
+	private static final byte EMPTY = (byte) ShipEnum.empty.ordinal();
+
+	/**
+	 * The token of a position that has been hit.
+	 */
+	private static final byte HIT = (byte) ShipEnum.hit.ordinal();
+
+	/**
+	 * The token saved for an empty position that has been fired at.
+	 */
+	private static final int MISS = 7;
+
+	/**
+	 * The number of bits a token or a ship count is saved in.
+	 */
+	private static final int TOKEN_BITS = 3;
 
 	// Constructor
 	/**
-	 * Constructor.
+	 * Constructor for the default 10 x 10 map.
 	 * 
-	 * @initially sets every grid in boardMap to the empty, and sets the size of
+	 * @initially sets every grid in board to the empty, and sets the size of
 	 *            each ship.
 	 */
 	public SolidBattleShipModel() {
+		this(DEFAULT_WIDTH, DEFAULT_HEIGHT);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param width
+	 *            the number of columns
+	 * @param height
+	 *            the number of rows
+	 * @requires width > 0 and height > 0 and width * height <=
+	 *           Integer.MAX_VALUE
+	 * @initially sets every grid in board to the empty, and sets the size of
+	 *            each ship.
+	 */
+	public SolidBattleShipModel(int width, int height) {
 		// needed constants
-		final int mapSize = 100, desSize = 2, subSize = 3,
-				cruSize = 3, batSize = 4, airSize = 5;
+		final int desSize = 2, subSize = 3, cruSize = 3, batSize = 4,
+				airSize = 5;
+		this.width = width;
+		this.height = height;
 		// fill the map with empty tokens
-		for (int i = 0; i < mapSize; i++) {
-			boardMap.put(i, ShipEnum.empty);
-		}
+		board = new byte[Math.multiplyExact(width, height)];
+		Arrays.fill(board, EMPTY);
 		// fill hitTracker map with ships and their sizes
 		hitTracker.put(ShipEnum.Destroyer, desSize);
 		hitTracker.put(ShipEnum.Submarine, subSize);
@@ -69,65 +139,27 @@ public final class SolidBattleShipModel implements BattleShipModel {
 	@Override
 	public boolean addShip(int mapIndex, CommandEnum placeDirection,
 			ShipEnum shipType) {
-		// will return true of there was an error
-		boolean addError = false;
 		// get the number of positions shipType occupies
-		int shipIndex = shipTracker.get(shipType);
-		// create a copy of boardMap
-		Map<Integer, ShipEnum> boardMapCopy = new HashMap<Integer, ShipEnum>(
-				boardMap);
-		// iterate shipIndex times
-		while (shipIndex > 0) {
-			// needed constants
-			final int ten = 10;
-			// we can only add ship if board is empty at mapIndex
-			if (boardMapCopy.get(mapIndex) == ShipEnum.empty) {
-				boardMapCopy.put(mapIndex, shipType); // add ship token
-			} else { // there was an error
-				addError = true;
-				break;
-			}
-			// error if mapIndex goes over 0 or 99 while adding the ship
-			if (mapIndex > MAPMAX || mapIndex < MAPMIN) {
+		int shipSize = shipTracker.get(shipType);
+		// the ship must fit on the grid without going into a different row
+		boolean addError = !PlacementTable.isLegal(width, height, shipSize,
+				placeDirection, mapIndex);
+		int step = PlacementTable.step(width, placeDirection);
+		// we can only add ship if board is empty at each of its positions
+		for (int i = 0; i < shipSize && !addError; i++) {
+			if (board[mapIndex + i * step] != EMPTY) {
 				addError = true;
-				break;
 			}
-			/*
-			 * Update mapIndex to determine where ship will be added next based
-			 * on placeDirection.
-			 */
-			switch (placeDirection) {
-			case up:
-				mapIndex = mapIndex - ten;
-				break;
-			case down:
-				mapIndex = mapIndex + ten;
-				break;
-			case left:
-				mapIndex = mapIndex - 1;
-				// make sure we don't go into a different row
-				int mapIndexCoy = mapIndex;
-				if ((mapIndexCoy + 1) % ten == 0 && shipIndex != 1) {
-					addError = true;
-					break;
-				}
-				break;
-			case right:
-				mapIndex = mapIndex + 1;
-				// make sure we don't go into a different row
-				if (mapIndex % ten == 0 && shipIndex != 1) {
-					addError = true;
-					break;
-				}
-				break;
-			default:
-				break;
-			}
-			shipIndex--; // one token of the ship has been added
 		}
-		// update boardMap only if there were no errors
+		// update board only if there were no errors
 		if (!addError) {
-			boardMap = boardMapCopy;
+			byte token = (byte) shipType.ordinal();
+			for (int i = 0; i < shipSize; i++) {
+				board[mapIndex + i * step] = token; // add ship token
+				if (listener != null) {
+					listener.cellChanged(mapIndex + i * step);
+				}
+			}
 		}
 		// return true if there was an error
 		return addError;
@@ -135,18 +167,21 @@ public final class SolidBattleShipModel implements BattleShipModel {
 
 	@Override
 	public ShipEnum fireShot(int mapIndex) {
-		// get token at mapIndex in boardMap
-		ShipEnum shipEnumReturn = boardMap.get(mapIndex);
+		// get token at mapIndex in board
+		ShipEnum shipEnumReturn = TOKENS[board[mapIndex]];
 		// if it's not empty, there's a ship. update hitTracker
 		if (shipEnumReturn != ShipEnum.empty) {
 			int count = hitTracker.get(shipEnumReturn);
 			count--; // one token of ship has been destroyed
 			hitTracker.put(shipEnumReturn, count);
-			// put hit in boardMap
-			boardMap.put(mapIndex, ShipEnum.hit);
+			// put hit in board
+			board[mapIndex] = HIT;
+			if (listener != null) {
+				listener.cellChanged(mapIndex);
+			}
 		}
 		/*
-		 * Return empty if there's no ship at mapIndex and boardMap will be
+		 * Return empty if there's no ship at mapIndex and board will be
 		 * unchanged.
 		 */
 		return shipEnumReturn;
@@ -184,8 +219,118 @@ public final class SolidBattleShipModel implements BattleShipModel {
 	public ShipEnum getGridToken(Integer gridIndex) {
 		/*
 		 * Return whatever is in map at position gridIndex (either a ship or
-		 * empty or hit).
+		 * empty or hit), or null if gridIndex is not on the map.
 		 */
-		return boardMap.get(gridIndex);
+		if (gridIndex < 0 || gridIndex >= board.length) {
+			return null;
+		}
+		return TOKENS[board[gridIndex]];
+	}
+
+	@Override
+	public void setCellListener(CellListener listener) {
+		this.listener = listener;
+	}
+
+	@Override
+	public int getWidth() {
+		return width;
+	}
+
+	@Override
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the number of bytes save writes.
+	 * 
+	 * @return 3 bits for every position and every ship, rounded up to bytes
+	 */
+	int savedBytes() {
+		final int byteBits = 8;
+		return (board.length * TOKEN_BITS + byteBits - 1) / byteBits + 2;
+	}
+
+	/**
+	 * Writes the grid and the hit counts to out, three bits for every token
+	 * and every count. Empty positions in shots are saved as misses.
+	 * 
+	 * @param out
+	 *            the buffer written to
+	 * @param shots
+	 *            the positions that have been fired at
+	 * @requires out.remaining() >= savedBytes()
+	 * @ensures savedBytes() bytes are written
+	 */
+	void save(ByteBuffer out, PositionSet shots) {
+		// needed constants
+		final int byteBits = 8, byteMask = 0xFF;
+		long bits = 0;
+		int count = 0;
+		for (int i = 0; i < board.length; i++) {
+			int token = board[i];
+			if (token == EMPTY && shots.contains(i)) {
+				token = MISS;
+			}
+			bits |= (long) token << count;
+			count += TOKEN_BITS;
+			if (count >= byteBits) {
+				out.put((byte) bits);
+				bits >>>= byteBits;
+				count -= byteBits;
+			}
+		}
+		if (count > 0) {
+			out.put((byte) bits);
+		}
+		int counts = 0;
+		for (int i = 0; i < FLEET.length; i++) {
+			counts |= hitTracker.get(FLEET[i]) << (i * TOKEN_BITS);
+		}
+		out.put((byte) (counts & byteMask));
+		out.put((byte) (counts >>> byteBits));
+	}
+
+	/**
+	 * Replaces the grid and the hit counts with those written by save, and
+	 * the positions in shots with the misses and hits saved. The cell
+	 * listener is not told about the positions that change.
+	 * 
+	 * @param in
+	 *            the buffer read from
+	 * @param shots
+	 *            receives the positions that have been fired at
+	 * @requires in.remaining() >= savedBytes() and the map had the same
+	 *           dimensions when it was saved
+	 * @ensures savedBytes() bytes are read
+	 */
+	void restore(ByteBuffer in, PositionSet shots) {
+		// needed constants
+		final int byteBits = 8, byteMask = 0xFF;
+		final int tokenMask = (1 << TOKEN_BITS) - 1;
+		long bits = 0;
+		int count = 0;
+		shots.clear();
+		for (int i = 0; i < board.length; i++) {
+			if (count < TOKEN_BITS) {
+				bits |= (long) (in.get() & byteMask) << count;
+				count += byteBits;
+			}
+			int token = (int) bits & tokenMask;
+			if (token == MISS) {
+				shots.add(i);
+				token = EMPTY;
+			} else if (token == HIT) {
+				shots.add(i);
+			}
+			board[i] = (byte) token;
+			bits >>>= TOKEN_BITS;
+			count -= TOKEN_BITS;
+		}
+		int counts = (in.get() & byteMask) | (in.get() & byteMask) << byteBits;
+		for (int i = 0; i < FLEET.length; i++) {
+			hitTracker.put(FLEET[i], counts >>> (i * TOKEN_BITS) & tokenMask);
+		}
 	}
 }
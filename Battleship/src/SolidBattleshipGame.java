@@ -1,4 +1,8 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -8,8 +12,9 @@ import java.util.Map;
  * other player's grid.
  * 
  * @convention this has two players, each with a BattleShipModel which is a map
- *             with 100 positions
- * @correspondence there are two players who have maps, each with 100 positions
+ *             with width * height positions, 100 unless given
+ * @correspondence there are two players who have maps, each with width *
+ *                 height positions
  */
 public final class SolidBattleshipGame implements BattleshipGame {
 	// Fields
@@ -24,6 +29,24 @@ public final class SolidBattleshipGame implements BattleshipGame {
 	private Map<CommandEnum, BattleShipModel> playerMap =
 			new HashMap<CommandEnum, BattleShipModel>();
 
+	/**
+	 * The positions fired at on both players' maps.
+	 */
+	private Map<CommandEnum, PositionSet> shotTracker =
+			new HashMap<CommandEnum, PositionSet>();
+
+	/**
+	 * The positions each player's map has changed at during the current move.
+	 */
+	private Map<CommandEnum, ChangeBuffer> changeTracker =
+			new HashMap<CommandEnum, ChangeBuffer>();
+
+	/**
+	 * Told about the positions each move changes.
+	 */
+	private final List<BoardListener> listeners =
+			new ArrayList<BoardListener>();
+
 	/**
 	 * The current player turn.
 	 */
@@ -35,6 +58,40 @@ public final class SolidBattleshipGame implements BattleshipGame {
 	 */
 	private int blocksOccupied;
 
+	/**
+	 * Flag saved when it is player 2's turn.
+	 */
+	private static final int PLAYER2_TURN = 1;
+
+	/**
+	 * Flag saved when the game has started.
+	 */
+	private static final int STARTED = 2;
+
+	/**
+	 * The ships of a complete fleet.
+	 */
+	private static final ShipEnum[] FLEET = {ShipEnum.Aircraft_Carrier,
+			ShipEnum.Battleship, ShipEnum.Cruiser, ShipEnum.Submarine,
+			ShipEnum.Destroyer};
+
+	/**
+	 * True if each turn is a salvo of one shot per ship the shooter has
+	 * afloat.
+	 */
+	private final boolean salvo;
+
+	/**
+	 * In a salvo game, the number of shots the current player has left this
+	 * turn, or 0 if they haven't fired yet.
+	 */
+	private int salvoLeft;
+
+	/**
+	 * The number of positions on each player's map.
+	 */
+	private final int positions;
+
 	// Constructor
 	/**
 	 * Constructor.
@@ -44,20 +101,159 @@ public final class SolidBattleshipGame implements BattleshipGame {
 	 *            player's grid are in playerMap.
 	 */
 	SolidBattleshipGame() {
+		this(SolidBattleShipModel.DEFAULT_WIDTH,
+				SolidBattleShipModel.DEFAULT_HEIGHT);
+	}
+
+	/**
+	 * Constructor for a game on maps of any size.
+	 * 
+	 * @param width
+	 *            the number of columns of each player's map
+	 * @param height
+	 *            the number of rows of each player's map
+	 * @requires width > 0 and height > 0
+	 * @initially All positions on boardMap are set to empty for both players,
+	 *            the default ship size is set, it is player 1's turn, and both
+	 *            player's grid are in playerMap.
+	 */
+	SolidBattleshipGame(int width, int height) {
+		this(new SolidBattleShipModel(width, height), new SolidBattleShipModel(
+				width, height));
+	}
+
+	/**
+	 * Constructor for a game on maps of any kind, for example
+	 * SparseBattleShipModel maps for very large boards. Only games on
+	 * SolidBattleShipModel maps can be saved in a GameSnapshot.
+	 * 
+	 * @param player1Board
+	 *            player 1's empty map
+	 * @param player2Board
+	 *            player 2's empty map
+	 * @initially it is player 1's turn, and both player's grid are in
+	 *            playerMap.
+	 */
+	SolidBattleshipGame(BattleShipModel player1Board,
+			BattleShipModel player2Board) {
+		this(player1Board, player2Board, false);
+	}
+
+	/**
+	 * Constructor for a normal or salvo game on maps of any kind.
+	 * 
+	 * @param player1Board
+	 *            player 1's empty map
+	 * @param player2Board
+	 *            player 2's empty map
+	 * @param salvo
+	 *            true for a salvo game
+	 * @initially it is player 1's turn, and both player's grid are in
+	 *            playerMap.
+	 */
+	private SolidBattleshipGame(BattleShipModel player1Board,
+			BattleShipModel player2Board, boolean salvo) {
+		this.salvo = salvo;
+		positions = player1Board.getWidth() * player1Board.getHeight();
 		// initially it is player 1's turn
 		playerTurn = CommandEnum.player1;
-		// create two instances of boardMap
-		BattleShipModel player1Board = new SolidBattleShipModel();
-		BattleShipModel player2Board = new SolidBattleShipModel();
 		// put the instances in playerMap
 		playerMap.put(CommandEnum.player1, player1Board);
 		playerMap.put(CommandEnum.player2, player2Board);
+		// no shots have been fired on either map
+		shotTracker.put(CommandEnum.player1, new PositionSet());
+		shotTracker.put(CommandEnum.player2, new PositionSet());
+		changeTracker.put(CommandEnum.player1, new ChangeBuffer(
+				CommandEnum.player1));
+		changeTracker.put(CommandEnum.player2, new ChangeBuffer(
+				CommandEnum.player2));
+	}
+
+	// Nested classes
+	/**
+	 * Collects the positions of one player's map that change during a move,
+	 * each once.
+	 */
+	private static final class ChangeBuffer implements CellListener {
+		/**
+		 * The initial capacity of positions; a move usually changes at most a
+		 * ship's worth.
+		 */
+		private static final int INITIAL_CAPACITY = 8;
+
+		/**
+		 * The player whose map this is.
+		 */
+		private final CommandEnum player;
+
+		/**
+		 * The positions that changed, in order.
+		 */
+		private int[] positions = new int[INITIAL_CAPACITY];
+
+		/**
+		 * The number of positions that changed.
+		 */
+		private int count;
+
+		/**
+		 * The positions already in positions.
+		 */
+		private final PositionSet seen = new PositionSet();
+
+		/**
+		 * Constructor.
+		 */
+		ChangeBuffer(CommandEnum player) {
+			this.player = player;
+		}
+
+		@Override
+		public void cellChanged(int mapIndex) {
+			if (!seen.add(mapIndex)) {
+				return;
+			}
+			if (count == positions.length) {
+				positions = Arrays.copyOf(positions, count * 2);
+			}
+			positions[count++] = mapIndex;
+		}
+
+		/**
+		 * Sends the positions collected to every listener, and starts over.
+		 */
+		void deliver(List<BoardListener> listeners) {
+			if (count == 0) {
+				return;
+			}
+			for (int i = 0; i < listeners.size(); i++) {
+				listeners.get(i).cellsChanged(player, positions, count);
+			}
+			seen.clear();
+			count = 0;
+		}
 	}
 
 	// Methods
+	/**
+	 * Returns a new salvo game on 10 x 10 maps. In a salvo game each turn is
+	 * a volley of as many shots as the shooter has ships afloat. The turn
+	 * passes once that many shots have been fired, one at a time with
+	 * fireShot or fireShots, or all together with fireSalvo. Salvo games keep
+	 * their maps as bitboards, and can't be saved in a GameSnapshot or
+	 * recorded by a JournaledBattleshipGame.
+	 * 
+	 * @return a new salvo game
+	 */
+	public static SolidBattleshipGame newSalvoGame() {
+		return new SolidBattleshipGame(new BitboardBattleShipModel(),
+				new BitboardBattleShipModel(), true);
+	}
+
 	@Override
 	public boolean addShip(int mapIndex, CommandEnum placeDirection,
 			ShipEnum shipType, CommandEnum player) {
+		long start = GameMetrics.start(GameMetrics.ADD_SHIP);
 		// needed constants
 		final int total = 17, desSize = 2, subSize = 3, cruSize = 3,
 				batSize = 4, airSize = 5;
@@ -100,20 +296,21 @@ public final class SolidBattleshipGame implements BattleshipGame {
 				gameStarted = true;
 			}
 		}
+		deliverChanges();
+		GameMetrics.stop(GameMetrics.ADD_SHIP, start);
 		// returns true if there was an error
 		return answer;
 	}
 
 	@Override
 	public ShipEnum fireShot(int mapIndex, CommandEnum player) {
+		long start = GameMetrics.start(GameMetrics.FIRE_SHOT);
 		// fire shot on player's map
 		ShipEnum answer = playerMap.get(player).fireShot(mapIndex);
-		// switch turns
-		if (playerTurn == CommandEnum.player1) {
-			playerTurn = CommandEnum.player2;
-		} else {
-			playerTurn = CommandEnum.player1;
-		}
+		shotTracker.get(player).add(mapIndex);
+		shotFired(player);
+		deliverChanges();
+		GameMetrics.stop(GameMetrics.FIRE_SHOT, start);
 		/*
 		 * Return the token returned from fireShot (either a type of ship, or
 		 * empty).
@@ -121,6 +318,258 @@ public final class SolidBattleshipGame implements BattleshipGame {
 		return answer;
 	}
 
+	/**
+	 * {@inheritDoc} In a salvo game, the batch counts against the shots of the
+	 * current turn, and the turn passes once every shot of the turn has been
+	 * fired.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if a position is off the map, or this is a salvo game and
+	 *             count is more than getSalvoSize()
+	 */
+	@Override
+	public int fireShots(int[] mapIndexes, int count, CommandEnum player,
+			byte[] outcomes) {
+		// nothing is fired unless the whole batch is on the map
+		checkPositions(mapIndexes, count);
+		if (isRejected(count, player, outcomes)) {
+			return 0;
+		}
+		if (salvo && count > getSalvoSize()) {
+			throw new IllegalArgumentException("a salvo of " + count
+					+ " shots is more than " + getSalvoSize());
+		}
+		long start = GameMetrics.start(GameMetrics.FIRE_SHOTS);
+		// look up player's map and shots once for the whole batch
+		BattleShipModel map = playerMap.get(player);
+		PositionSet shots = shotTracker.get(player);
+		int fired = 0;
+		for (int i = 0; i < count; i++) {
+			int mapIndex = mapIndexes[i];
+			if (shots.contains(mapIndex)) {
+				outcomes[i] = ShotOutcome.REPEAT;
+				continue;
+			}
+			ShipEnum hit = map.fireShot(mapIndex);
+			shots.add(mapIndex);
+			if (salvo) {
+				shotFired(player);
+			}
+			boolean sunk = hit != ShipEnum.empty && map.isShipSunk(hit);
+			outcomes[i] = ShotOutcome.encode(hit, sunk, sunk
+					&& map.loseCheck());
+			fired++;
+		}
+		if (fired > 0 && !salvo) {
+			// the whole batch is one turn
+			shotFired(player);
+		}
+		deliverChanges();
+		GameMetrics.stop(GameMetrics.FIRE_SHOTS, start);
+		return fired;
+	}
+
+	/**
+	 * Fires a salvo at player's map. All the shots of the volley are
+	 * resolved together against the map's bitboards, so a ship sunk by the
+	 * volley is reported as sunk by every shot that hit it. Positions already
+	 * fired at, or repeated within the volley, are not fired at; their
+	 * outcome is ShotOutcome.REPEAT. As with fireShots, a volley fired before
+	 * the game has started, or at the player whose turn it is, is rejected
+	 * whole. The turn passes to player after a volley that fired a shot.
+	 * 
+	 * @param mapIndexes
+	 *            the positions fired at
+	 * @param count
+	 *            the number of positions, from the start of mapIndexes
+	 * @param player
+	 *            the player the salvo is being fired at
+	 * @param outcomes
+	 *            receives the outcome of the shot at mapIndexes[i] in
+	 *            outcomes[i]
+	 * @return the number of shots fired, not counting repeats
+	 * @throws IllegalStateException
+	 *             if this is not a salvo game
+	 * @throws IllegalArgumentException
+	 *             if a position is off the map, or count is more than
+	 *             getSalvoSize()
+	 */
+	public int fireSalvo(int[] mapIndexes, int count, CommandEnum player,
+			byte[] outcomes) {
+		// needed constants
+		final int word = 64;
+		if (!salvo) {
+			throw new IllegalStateException("not a salvo game");
+		}
+		// the volley's shifts would silently wrap positions off the map
+		checkPositions(mapIndexes, count);
+		if (isRejected(count, player, outcomes)) {
+			return 0;
+		}
+		if (count > getSalvoSize()) {
+			throw new IllegalArgumentException("a salvo of " + count
+					+ " shots is more than " + getSalvoSize());
+		}
+		long start = GameMetrics.start(GameMetrics.FIRE_SHOTS);
+		BitboardBattleShipModel map = (BitboardBattleShipModel) playerMap
+				.get(player);
+		PositionSet shots = shotTracker.get(player);
+		// build the volley, and note which ship each shot will hit
+		long low = 0, high = 0;
+		int fired = 0;
+		for (int i = 0; i < count; i++) {
+			int mapIndex = mapIndexes[i];
+			if (shots.contains(mapIndex)) {
+				outcomes[i] = ShotOutcome.REPEAT;
+				continue;
+			}
+			shots.add(mapIndex);
+			if (mapIndex < word) {
+				low |= 1L << mapIndex;
+			} else {
+				high |= 1L << (mapIndex - word);
+			}
+			outcomes[i] = (byte) map.getGridToken(mapIndex).ordinal();
+			fired++;
+		}
+		int sunk = map.fireVolley(low, high);
+		int lost = 0;
+		if (sunk != 0 && map.loseCheck()) {
+			lost = ShotOutcome.LOST;
+		}
+		for (int i = 0; i < count; i++) {
+			byte outcome = outcomes[i];
+			if (outcome != ShotOutcome.REPEAT && outcome != ShotOutcome.MISS
+					&& (sunk & 1 << outcome) != 0) {
+				outcomes[i] = (byte) (outcome | ShotOutcome.SUNK | lost);
+			}
+		}
+		if (fired > 0) {
+			salvoLeft = 0;
+			playerTurn = player;
+		}
+		deliverChanges();
+		GameMetrics.stop(GameMetrics.FIRE_SHOTS, start);
+		return fired;
+	}
+
+	/**
+	 * Returns the number of shots the current player may fire this turn.
+	 * 
+	 * @return 1 in a normal game; in a salvo game, the number of the current
+	 *         player's ships afloat, less any shots already fired this turn
+	 */
+	public int getSalvoSize() {
+		if (!salvo) {
+			return 1;
+		}
+		if (salvoLeft > 0) {
+			return salvoLeft;
+		}
+		BattleShipModel own = playerMap.get(playerTurn);
+		int afloat = 0;
+		for (ShipEnum ship : FLEET) {
+			if (!own.isShipSunk(ship)) {
+				afloat++;
+			}
+		}
+		return afloat;
+	}
+
+	/**
+	 * Returns true if this is a salvo game.
+	 * 
+	 * @return true if each turn is a salvo
+	 */
+	public boolean isSalvo() {
+		return salvo;
+	}
+
+	/**
+	 * Throws an IllegalArgumentException if any of the first count positions
+	 * of mapIndexes is off the map.
+	 */
+	private void checkPositions(int[] mapIndexes, int count) {
+		for (int i = 0; i < count; i++) {
+			if (mapIndexes[i] < 0 || mapIndexes[i] >= positions) {
+				throw new IllegalArgumentException("position " + mapIndexes[i]
+						+ " is off the map");
+			}
+		}
+	}
+
+	/**
+	 * Rejects a batch of shots at player's map fired before the game has
+	 * started or at the player whose turn it is, by setting the first count
+	 * outcomes to ShotOutcome.NOT_STARTED or ShotOutcome.NOT_YOUR_TURN.
+	 * 
+	 * @return true if the batch was rejected
+	 */
+	private boolean isRejected(int count, CommandEnum player,
+			byte[] outcomes) {
+		byte rejected = 0;
+		if (!gameStarted) {
+			rejected = ShotOutcome.NOT_STARTED;
+		} else if (player == playerTurn) {
+			rejected = ShotOutcome.NOT_YOUR_TURN;
+		}
+		if (rejected == 0) {
+			return false;
+		}
+		Arrays.fill(outcomes, 0, count, rejected);
+		return true;
+	}
+
+	/**
+	 * Counts a shot at player's map, and passes the turn to player once the
+	 * shooter has fired every shot of the turn.
+	 */
+	private void shotFired(CommandEnum player) {
+		if (salvo) {
+			if (salvoLeft == 0) {
+				salvoLeft = getSalvoSize();
+			}
+			salvoLeft--;
+			if (salvoLeft > 0) {
+				return;
+			}
+			salvoLeft = 0;
+		}
+		playerTurn = player;
+	}
+
+	@Override
+	public void addBoardListener(BoardListener listener) {
+		if (listeners.isEmpty()) {
+			// the maps only report changes while someone is listening
+			playerMap.get(CommandEnum.player1).setCellListener(
+					changeTracker.get(CommandEnum.player1));
+			playerMap.get(CommandEnum.player2).setCellListener(
+					changeTracker.get(CommandEnum.player2));
+		}
+		listeners.add(listener);
+	}
+
+	@Override
+	public void removeBoardListener(BoardListener listener) {
+		listeners.remove(listener);
+		if (listeners.isEmpty()) {
+			playerMap.get(CommandEnum.player1).setCellListener(null);
+			playerMap.get(CommandEnum.player2).setCellListener(null);
+		}
+	}
+
+	/**
+	 * Delivers the positions the last move changed to the listeners.
+	 */
+	private void deliverChanges() {
+		if (listeners.isEmpty()) {
+			return;
+		}
+		changeTracker.get(CommandEnum.player1).deliver(listeners);
+		changeTracker.get(CommandEnum.player2).deliver(listeners);
+	}
+
 	@Override
 	public CommandEnum getPlayerTurn() {
 		// return playTurn
@@ -143,8 +592,11 @@ public final class SolidBattleshipGame implements BattleshipGame {
 
 	@Override
 	public boolean hasPlayerLost(CommandEnum player) {
+		long start = GameMetrics.start(GameMetrics.HAS_PLAYER_LOST);
 		// call player's loseCheck
-		return playerMap.get(player).loseCheck();
+		boolean lost = playerMap.get(player).loseCheck();
+		GameMetrics.stop(GameMetrics.HAS_PLAYER_LOST, start);
+		return lost;
 	}
 
 	@Override
@@ -152,4 +604,63 @@ public final class SolidBattleshipGame implements BattleshipGame {
 		// return gameStarted
 		return gameStarted;
 	}
+
+	/**
+	 * Returns the number of bytes save writes.
+	 * 
+	 * @return two bytes, and the bytes saved for each player's map
+	 */
+	int savedBytes() {
+		return 2 + 2 * ((SolidBattleShipModel) playerMap
+				.get(CommandEnum.player1)).savedBytes();
+	}
+
+	/**
+	 * Writes the turn, whether the game has started, blocksOccupied and both
+	 * players' maps and shots to out.
+	 * 
+	 * @param out
+	 *            the buffer written to
+	 * @requires out.remaining() >= savedBytes()
+	 * @ensures savedBytes() bytes are written
+	 */
+	void save(ByteBuffer out) {
+		int flags = 0;
+		if (playerTurn == CommandEnum.player2) {
+			flags |= PLAYER2_TURN;
+		}
+		if (gameStarted) {
+			flags |= STARTED;
+		}
+		out.put((byte) flags);
+		out.put((byte) blocksOccupied);
+		((SolidBattleShipModel) playerMap.get(CommandEnum.player1)).save(out,
+				shotTracker.get(CommandEnum.player1));
+		((SolidBattleShipModel) playerMap.get(CommandEnum.player2)).save(out,
+				shotTracker.get(CommandEnum.player2));
+	}
+
+	/**
+	 * Replaces the whole state of the game with one written by save.
+	 * 
+	 * @param in
+	 *            the buffer read from
+	 * @requires in.remaining() >= savedBytes() and the maps had the same
+	 *           dimensions when they were saved
+	 * @ensures savedBytes() bytes are read
+	 */
+	void restore(ByteBuffer in) {
+		int flags = in.get();
+		if ((flags & PLAYER2_TURN) != 0) {
+			playerTurn = CommandEnum.player2;
+		} else {
+			playerTurn = CommandEnum.player1;
+		}
+		gameStarted = (flags & STARTED) != 0;
+		blocksOccupied = in.get();
+		((SolidBattleShipModel) playerMap.get(CommandEnum.player1)).restore(in,
+				shotTracker.get(CommandEnum.player1));
+		((SolidBattleShipModel) playerMap.get(CommandEnum.player2)).restore(in,
+				shotTracker.get(CommandEnum.player2));
+	}
 }
@@ -0,0 +1,216 @@
+/**
+ * This class implements the BattleShipModel interface for very large, mostly
+ * empty maps. Only the positions occupied by ships are stored, in an
+ * open-addressing hash table of primitive keys and tokens, so the memory used
+ * grows with the fleet rather than with the area of the map. Every position
+ * not in the table is empty; a miss leaves the map unchanged, as it does in
+ * SolidBattleShipModel.
+ *
+ * @convention keys holds mapIndex + 1 for every occupied position and 0 for
+ *             a free slot, tokens holds the ShipEnum ordinal at the same
+ *             slot, and the table is never more than half full
+ *
+ * @correspondence boardMap is a map with width * height positions, holding
+ *                 the token stored for a position, or empty if it has none
+ */
+public final class SparseBattleShipModel implements BattleShipModel {
+	// Fields
+	/**
+	 * The initial number of slots, enough for a complete fleet; always a
+	 * power of two.
+	 */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/**
+	 * Multiplier spreading map indexes over the table.
+	 */
+	private static final int MIX = 0x9E3779B9;
+
+	/**
+	 * ShipEnum values, cached because values() returns a new array.
+	 */
+	private static final ShipEnum[] TOKENS = ShipEnum.values();
+
+	/**
+	 * The token of a position that has been hit.
+	 */
+	private static final byte HIT = (byte) ShipEnum.hit.ordinal();
+
+	/**
+	 * The number of columns.
+	 */
+	private final int width;
+
+	/**
+	 * The number of rows.
+	 */
+	private final int height;
+
+	/**
+	 * The occupied positions, plus one, by slot.
+	 */
+	private int[] keys = new int[INITIAL_CAPACITY];
+
+	/**
+	 * The token of each occupied position, by slot.
+	 */
+	private byte[] tokens = new byte[INITIAL_CAPACITY];
+
+	/**
+	 * The number of occupied positions.
+	 */
+	private int size;
+
+	/**
+	 * The number of positions of each ship not yet hit, indexed by ordinal.
+	 */
+	private final int[] hitTracker = new int[ShipEnum.empty.ordinal()];
+
+	/**
+	 * Told about every position whose token changes, or null.
+	 */
+	private CellListener listener;
+
+	// Constructor
+	/**
+	 * Constructor.
+	 * 
+	 * @param width
+	 *            the number of columns
+	 * @param height
+	 *            the number of rows
+	 * @requires width > 0 and height > 0 and width * height <=
+	 *           Integer.MAX_VALUE
+	 * @initially every position is empty, and every ship has its full size
+	 *            left, as in SolidBattleShipModel.
+	 */
+	public SparseBattleShipModel(int width, int height) {
+		this.width = width;
+		this.height = height;
+		for (int i = 0; i < hitTracker.length; i++) {
+			hitTracker[i] = PlacementTable.shipSize(TOKENS[i]);
+		}
+	}
+
+	// Methods
+	@Override
+	public boolean addShip(int mapIndex, CommandEnum placeDirection,
+			ShipEnum shipType) {
+		int shipSize = PlacementTable.shipSize(shipType);
+		if (!PlacementTable.isLegal(width, height, shipSize, placeDirection,
+				mapIndex)) {
+			return true;
+		}
+		int step = PlacementTable.step(width, placeDirection);
+		// ships may not overlap
+		for (int i = 0; i < shipSize; i++) {
+			if (keys[find(mapIndex + i * step)] != 0) {
+				return true;
+			}
+		}
+		while (2 * (size + shipSize) > keys.length) {
+			grow();
+		}
+		for (int i = 0; i < shipSize; i++) {
+			int slot = find(mapIndex + i * step);
+			keys[slot] = mapIndex + i * step + 1;
+			tokens[slot] = (byte) shipType.ordinal();
+			if (listener != null) {
+				listener.cellChanged(mapIndex + i * step);
+			}
+		}
+		size += shipSize;
+		return false;
+	}
+
+	@Override
+	public ShipEnum fireShot(int mapIndex) {
+		int slot = find(mapIndex);
+		if (keys[slot] == 0) {
+			return ShipEnum.empty;
+		}
+		// a repeated shot at a ship finds the hit token that is already there
+		ShipEnum token = TOKENS[tokens[slot]];
+		if (token != ShipEnum.hit) {
+			hitTracker[token.ordinal()]--;
+			tokens[slot] = HIT;
+			if (listener != null) {
+				listener.cellChanged(mapIndex);
+			}
+		}
+		return token;
+	}
+
+	@Override
+	public boolean loseCheck() {
+		// every ship must have no positions left
+		for (int left : hitTracker) {
+			if (left != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public boolean isShipSunk(ShipEnum ship) {
+		return hitTracker[ship.ordinal()] == 0;
+	}
+
+	@Override
+	public ShipEnum getGridToken(Integer gridIndex) {
+		if (gridIndex < 0 || gridIndex / width >= height) {
+			return null;
+		}
+		int slot = find(gridIndex);
+		if (keys[slot] == 0) {
+			return ShipEnum.empty;
+		}
+		return TOKENS[tokens[slot]];
+	}
+
+	@Override
+	public void setCellListener(CellListener listener) {
+		this.listener = listener;
+	}
+
+	@Override
+	public int getWidth() {
+		return width;
+	}
+
+	@Override
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the slot holding mapIndex, or the free slot where it belongs.
+	 */
+	private int find(int mapIndex) {
+		int mask = keys.length - 1;
+		int slot = (mapIndex * MIX) >>> Integer.numberOfLeadingZeros(mask)
+				& mask;
+		while (keys[slot] != 0 && keys[slot] != mapIndex + 1) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * Doubles the number of slots.
+	 */
+	private void grow() {
+		int[] oldKeys = keys;
+		byte[] oldTokens = tokens;
+		keys = new int[oldKeys.length * 2];
+		tokens = new byte[oldKeys.length * 2];
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != 0) {
+				int slot = find(oldKeys[i] - 1);
+				keys[slot] = oldKeys[i];
+				tokens[slot] = oldTokens[i];
+			}
+		}
+	}
+}